@@ -0,0 +1,24 @@
+package ru.practicum.explorewithme.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+@Getter
+@AllArgsConstructor
+public class CachedResponse<T> {
+    private final T body;
+    private final String eTag;
+    private final CacheControl cacheControl;
+
+    public ResponseEntity.BodyBuilder responseBuilder() {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(cacheControl);
+    }
+
+    public ResponseEntity<T> toResponseEntity() {
+        return responseBuilder().body(body);
+    }
+}
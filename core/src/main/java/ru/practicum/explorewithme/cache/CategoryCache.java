@@ -0,0 +1,116 @@
+package ru.practicum.explorewithme.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.explorewithme.dao.CategoryRepository;
+import ru.practicum.explorewithme.dto.response.CategoryResponseDto;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
+import ru.practicum.explorewithme.mapper.CategoryMapper;
+import ru.practicum.explorewithme.model.Category;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class CategoryCache {
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final ResponseCache responseCache;
+    private volatile CategoriesSnapshot snapshot = new CategoriesSnapshot(null, List.of(), Map.of());
+
+    @Autowired
+    public CategoryCache(CategoryRepository categoryRepository,
+                         CategoryMapper categoryMapper,
+                         ResponseCache responseCache) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.responseCache = responseCache;
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${ewm.category-cache.sync-interval-ms:5000}",
+            fixedDelayString = "${ewm.category-cache.sync-interval-ms:5000}")
+    public void synchronize() {
+        try {
+            if (!Objects.equals(categoryRepository.findCategoriesVersion(), snapshot.version)) {
+                reload();
+                responseCache.invalidate(ResponseCacheRegion.CATEGORIES, ResponseCacheRegion.COMPILATIONS,
+                        ResponseCacheRegion.EVENTS);
+            }
+        } catch (DataAccessException e) {
+            log.warn("category cache: failed to synchronize categories: {}", e.getMessage());
+        }
+    }
+
+    public void invalidate() {
+        categoryRepository.incrementCategoriesVersion();
+        ResponseCache.afterCommit(this::reload);
+        responseCache.invalidate(ResponseCacheRegion.CATEGORIES, ResponseCacheRegion.COMPILATIONS,
+                ResponseCacheRegion.EVENTS);
+    }
+
+    public Long getVersion() {
+        return snapshot.version;
+    }
+
+    public List<CategoryResponseDto> getCategories(int offset, int limit) {
+
+        List<CategoryResponseDto> categories = snapshot.categories;
+        if (offset >= categories.size()) {
+            return Collections.emptyList();
+        }
+        return categories.subList(offset, Math.min(categories.size(), offset + limit));
+    }
+
+    public Optional<CategoryResponseDto> findCategoryById(long catId) {
+
+        CategoryResponseDto category = snapshot.categoriesByIds.get(catId);
+        if (category != null) {
+            return Optional.of(category);
+        }
+        return categoryRepository.findById(catId).map(categoryMapper::categoryToDto);
+    }
+
+    public CategoryResponseDto categoryToDto(Category category) {
+
+        if (category == null) {
+            return null;
+        }
+        CategoryResponseDto cachedCategory = snapshot.categoriesByIds.get(category.getId());
+        return cachedCategory != null ? cachedCategory : categoryMapper.categoryToDto(category);
+    }
+
+    private void reload() {
+
+        Long version = categoryRepository.findCategoriesVersion();
+        List<CategoryResponseDto> categories = categoryRepository.findAllByOrderByIdAsc().stream()
+                .map(categoryMapper::categoryToDto)
+                .collect(Collectors.toUnmodifiableList());
+
+        snapshot = new CategoriesSnapshot(version, categories, categories.stream()
+                .collect(Collectors.toUnmodifiableMap(CategoryResponseDto::getId, Function.identity())));
+        log.info("category cache: loaded {} categories, version {}", categories.size(), version);
+    }
+
+    @AllArgsConstructor
+    private static class CategoriesSnapshot {
+        private final Long version;
+        private final List<CategoryResponseDto> categories;
+        private final Map<Long, CategoryResponseDto> categoriesByIds;
+    }
+}
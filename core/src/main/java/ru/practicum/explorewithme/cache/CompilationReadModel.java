@@ -0,0 +1,204 @@
+package ru.practicum.explorewithme.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.explorewithme.dao.CompilationRepository;
+import ru.practicum.explorewithme.dao.EventRepository;
+import ru.practicum.explorewithme.dto.response.CompilationResponseDto;
+import ru.practicum.explorewithme.dto.response.EventResponseDto;
+import ru.practicum.explorewithme.mapper.CompilationMapper;
+import ru.practicum.explorewithme.mapper.EventMapper;
+import ru.practicum.explorewithme.model.CompilationEventIds;
+import ru.practicum.explorewithme.model.Event;
+import ru.practicum.explorewithme.pagination.CursorPage;
+import ru.practicum.explorewithme.pagination.PageCursor;
+import ru.practicum.explorewithme.service.EventViewsCache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class CompilationReadModel {
+    private final CompilationRepository compilationRepository;
+    private final EventRepository eventRepository;
+    private final CompilationMapper compilationMapper;
+    private final EventMapper eventMapper;
+    private final CategoryCache categoryCache;
+    private final EventViewsCache eventViewsCache;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<Object, AssembledCompilations<?>> assembledCompilations;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private long generation;
+
+    @Autowired
+    public CompilationReadModel(CompilationRepository compilationRepository,
+                                EventRepository eventRepository,
+                                CompilationMapper compilationMapper,
+                                EventMapper eventMapper,
+                                CategoryCache categoryCache,
+                                EventViewsCache eventViewsCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${ewm.compilations.cache.ttl-ms:0}") long ttlMs,
+                                @Value("${ewm.compilations.cache.max-size:200}") int maxSize) {
+        this.compilationRepository = compilationRepository;
+        this.eventRepository = eventRepository;
+        this.compilationMapper = compilationMapper;
+        this.eventMapper = eventMapper;
+        this.categoryCache = categoryCache;
+        this.eventViewsCache = eventViewsCache;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.maxSize = maxSize;
+        this.assembledCompilations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, AssembledCompilations<?>> eldest) {
+                return size() > CompilationReadModel.this.maxSize;
+            }
+        };
+
+        this.cacheHits = meterRegistry.counter("ewm.compilations.cache.requests", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("ewm.compilations.cache.requests", "result", "miss");
+    }
+
+    public CursorPage<CompilationResponseDto> getCompilations(Boolean pinned, int from, int size, String cursor) {
+
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        return get(Arrays.asList(pinned, from, size, PageCursor.idOf(pageCursor)), () -> {
+            Slice<CompilationEventIds> compilations = compilationRepository.findCompilationsWithEventIds(
+                    pinned, PageCursor.idOf(pageCursor), PageCursor.pageRequest(pageCursor, from, size));
+            Map<Long, EventResponseDto> eventDtosByIds = findEventDtosByIds(compilations.getContent());
+
+            return new AssembledCompilations<>(new CursorPage<>(compilations.stream()
+                    .map(compilation -> assemble(compilation, eventDtosByIds))
+                    .collect(Collectors.toUnmodifiableList()),
+                    PageCursor.nextCursorOf(compilations, CompilationEventIds::getId)),
+                    eventDtosByIds.keySet(), categoryCache.getVersion(), System.nanoTime());
+        });
+    }
+
+    public Optional<CompilationResponseDto> findCompilationById(long compId) {
+
+        return get(compId, () -> {
+            Optional<CompilationEventIds> compilation = compilationRepository.findCompilationWithEventIds(compId);
+            Map<Long, EventResponseDto> eventDtosByIds = findEventDtosByIds(compilation.stream()
+                    .collect(Collectors.toList()));
+
+            return new AssembledCompilations<>(compilation.map(found -> assemble(found, eventDtosByIds)),
+                    eventDtosByIds.keySet(), categoryCache.getVersion(), System.nanoTime());
+        });
+    }
+
+    public Map<Long, EventResponseDto> mapEventsWithViews(Collection<Event> events) {
+
+        Map<Long, EventResponseDto> eventDtosByIds = events.stream()
+                .collect(Collectors.toMap(Event::getId, eventMapper::eventToShortDto));
+        if (eventDtosByIds.isEmpty()) {
+            return eventDtosByIds;
+        }
+
+        try {
+            Map<Long, Long> viewsByEventIds = eventViewsCache.getViews(eventDtosByIds.keySet(), true);
+            eventDtosByIds.forEach((eventId, eventDto) -> eventDto.setViews(viewsByEventIds.getOrDefault(eventId, 0L)));
+        } catch (RestClientException e) {
+            log.warn("compilations: views are unavailable, using synchronized views of {} events: {}",
+                    eventDtosByIds.size(), e.getMessage());
+        }
+        return eventDtosByIds;
+    }
+
+    public void invalidateAll() {
+        ResponseCache.afterCommit(() -> {
+            synchronized (assembledCompilations) {
+                generation++;
+                assembledCompilations.clear();
+            }
+        });
+    }
+
+    public void invalidateEvent(long eventId) {
+        invalidateEvents(List.of(eventId));
+    }
+
+    public void invalidateEvents(Collection<Long> eventIds) {
+        ResponseCache.afterCommit(() -> {
+            synchronized (assembledCompilations) {
+                generation++;
+                assembledCompilations.values().removeIf(assembled -> eventIds.stream()
+                        .anyMatch(assembled.eventIds::contains));
+            }
+        });
+    }
+
+    private <T> T get(Object key, Supplier<AssembledCompilations<T>> loader) {
+
+        long loadedGeneration;
+        synchronized (assembledCompilations) {
+            @SuppressWarnings("unchecked")
+            AssembledCompilations<T> cached = (AssembledCompilations<T>) assembledCompilations.get(key);
+            if (cached != null && System.nanoTime() - cached.assembledAtNanos < ttlNanos
+                    && Objects.equals(cached.categoriesVersion, categoryCache.getVersion())) {
+                cacheHits.increment();
+                return cached.value;
+            }
+            loadedGeneration = generation;
+        }
+        cacheMisses.increment();
+
+        AssembledCompilations<T> assembled = loader.get();
+        if (ttlNanos > 0) {
+            synchronized (assembledCompilations) {
+                if (generation == loadedGeneration) {
+                    assembledCompilations.put(key, assembled);
+                }
+            }
+        }
+        return assembled.value;
+    }
+
+    private Map<Long, EventResponseDto> findEventDtosByIds(Collection<CompilationEventIds> compilations) {
+
+        Set<Long> eventIds = compilations.stream()
+                .flatMap(compilation -> compilation.getEventIds().stream())
+                .collect(Collectors.toSet());
+
+        if (eventIds.isEmpty()) {
+            return Map.of();
+        }
+        return mapEventsWithViews(eventRepository.findByIdIn(eventIds));
+    }
+
+    private CompilationResponseDto assemble(CompilationEventIds compilation,
+                                            Map<Long, EventResponseDto> eventDtosByIds) {
+
+        return compilationMapper.compilationEventIdsToDto(compilation, compilation.getEventIds().stream()
+                .map(eventDtosByIds::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    @AllArgsConstructor
+    private static class AssembledCompilations<T> {
+        private final T value;
+        private final Set<Long> eventIds;
+        private final Long categoriesVersion;
+        private final long assembledAtNanos;
+    }
+}
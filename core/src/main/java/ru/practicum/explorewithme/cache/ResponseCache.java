@@ -0,0 +1,174 @@
+package ru.practicum.explorewithme.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class ResponseCache {
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final Map<ResponseCacheRegion, Long> ttlNanosByRegions = new EnumMap<>(ResponseCacheRegion.class);
+    private final Map<ResponseCacheRegion, CacheControl> cacheControlByRegions =
+            new EnumMap<>(ResponseCacheRegion.class);
+    private final Map<ResponseCacheRegion, Long> generationsByRegions = new EnumMap<>(ResponseCacheRegion.class);
+    private final Map<CacheKey, CachedEntry> cachedEntries;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter invalidations;
+
+    @Autowired
+    public ResponseCache(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${ewm.response-cache.max-size:1000}") int maxSize,
+                         @Value("${ewm.response-cache.max-staleness-ms:0}") long maxStalenessMs,
+                         @Value("${ewm.response-cache.categories-max-age-seconds:60}")
+                         long categoriesMaxAgeSeconds) {
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.cachedEntries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedEntry> eldest) {
+                return size() > ResponseCache.this.maxSize;
+            }
+        };
+
+        ttlNanosByRegions.put(ResponseCacheRegion.CATEGORIES, Long.MAX_VALUE);
+        ttlNanosByRegions.put(ResponseCacheRegion.COMPILATIONS, maxStalenessMs * 1_000_000);
+        ttlNanosByRegions.put(ResponseCacheRegion.EVENTS, maxStalenessMs * 1_000_000);
+
+        cacheControlByRegions.put(ResponseCacheRegion.CATEGORIES, publicCacheControl(categoriesMaxAgeSeconds));
+        cacheControlByRegions.put(ResponseCacheRegion.COMPILATIONS, publicCacheControl(maxStalenessMs / 1000));
+        cacheControlByRegions.put(ResponseCacheRegion.EVENTS, publicCacheControl(0));
+
+        for (ResponseCacheRegion region : ResponseCacheRegion.values()) {
+            generationsByRegions.put(region, 0L);
+        }
+
+        meterRegistry.gauge("ewm.response-cache.size", cachedEntries, this::sizeOf);
+        this.cacheHits = meterRegistry.counter("ewm.response-cache.requests", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("ewm.response-cache.requests", "result", "miss");
+        this.invalidations = meterRegistry.counter("ewm.response-cache.invalidations");
+    }
+
+    public <T> CachedResponse<T> get(ResponseCacheRegion region, Object key, Supplier<T> loader) {
+
+        CacheKey cacheKey = new CacheKey(region, key);
+        long ttlNanos = ttlNanosByRegions.get(region);
+        long generation;
+
+        synchronized (cachedEntries) {
+            CachedEntry cached = cachedEntries.get(cacheKey);
+            if (cached != null && System.nanoTime() - cached.loadedAtNanos < ttlNanos) {
+                cacheHits.increment();
+                @SuppressWarnings("unchecked")
+                CachedResponse<T> cachedResponse = (CachedResponse<T>) cached.response;
+                return cachedResponse;
+            }
+            generation = generationsByRegions.get(region);
+        }
+        cacheMisses.increment();
+
+        long loadedAt = System.nanoTime();
+        T body = loader.get();
+        CachedResponse<T> response = new CachedResponse<>(body, eTagOf(body), cacheControlByRegions.get(region));
+
+        if (ttlNanos > 0) {
+            synchronized (cachedEntries) {
+                if (generationsByRegions.get(region) == generation) {
+                    cachedEntries.put(cacheKey, new CachedEntry(response, loadedAt));
+                }
+            }
+        }
+        return response;
+    }
+
+    public void invalidate(ResponseCacheRegion... regions) {
+        afterCommit(() -> {
+            synchronized (cachedEntries) {
+                for (ResponseCacheRegion region : regions) {
+                    generationsByRegions.merge(region, 1L, Long::sum);
+                    cachedEntries.keySet().removeIf(cacheKey -> cacheKey.region == region);
+                }
+            }
+            invalidations.increment();
+        });
+    }
+
+    public void invalidate(ResponseCacheRegion region, Object key) {
+        afterCommit(() -> {
+            synchronized (cachedEntries) {
+                generationsByRegions.merge(region, 1L, Long::sum);
+                cachedEntries.remove(new CacheKey(region, key));
+            }
+            invalidations.increment();
+        });
+    }
+
+    static void afterCommit(Runnable action) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private String eTagOf(Object body) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("response cache: Failed to serialize response body", e);
+        }
+    }
+
+    private static CacheControl publicCacheControl(long maxAgeSeconds) {
+
+        if (maxAgeSeconds <= 0) {
+            return CacheControl.noCache().cachePublic();
+        }
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+    }
+
+    private double sizeOf(Map<CacheKey, CachedEntry> entries) {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class CacheKey {
+        private final ResponseCacheRegion region;
+        private final Object key;
+    }
+
+    @AllArgsConstructor
+    private static class CachedEntry {
+        private final CachedResponse<?> response;
+        private final long loadedAtNanos;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.explorewithme.dto.request.*;
@@ -15,7 +16,6 @@ import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 
 @RestController
@@ -72,7 +72,7 @@ public class AdminController {
     }
 
     @GetMapping("/events")
-    public Collection<EventFullInfoResponseDto> getFullInfoAboutAllEventsByAdmin(
+    public ResponseEntity<List<EventFullInfoResponseDto>> getFullInfoAboutAllEventsByAdmin(
             @RequestParam(value = "users", required = false) List<Long> userIds,
             @RequestParam(value = "states", required = false) List<String> statesOfEvent,
             @RequestParam(value = "categories", required = false) List<Long> categoryIds,
@@ -81,10 +81,11 @@ public class AdminController {
             @RequestParam(value = "rangeEnd", required = false)
             @DateTimeFormat(pattern = dateTimePattern) LocalDateTime rangeEnd,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         return eventService.getFullInfoAboutAllEventsByAdmin(
-                userIds, statesOfEvent, categoryIds, rangeStart, rangeEnd, from, size);
+                userIds, statesOfEvent, categoryIds, rangeStart, rangeEnd, from, size, cursor).toResponseEntity();
     }
 
     @PatchMapping("/events/{eventId}")
@@ -101,12 +102,13 @@ public class AdminController {
     }
 
     @GetMapping("/users")
-    public Collection<UserFullInfoResponseDto> getRequiredUsersByAdmin(
+    public ResponseEntity<List<UserFullInfoResponseDto>> getRequiredUsersByAdmin(
             @RequestParam(value = "ids", required = false) List<Long> userIds,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
-        return userService.getRequiredUsersByAdmin(userIds, from, size);
+        return userService.getRequiredUsersByAdmin(userIds, from, size, cursor).toResponseEntity();
     }
 
     @PostMapping("/users")
@@ -180,7 +182,7 @@ public class AdminController {
     }
 
     @GetMapping("/comments")
-    public Collection<CommentFullInfoResponseDto> getFullInfoAboutAllCommentsByAdmin(
+    public ResponseEntity<List<CommentFullInfoResponseDto>> getFullInfoAboutAllCommentsByAdmin(
             @RequestParam(value = "text", required = false) String searchText,
             @RequestParam(value = "authors", required = false) List<Long> userIds,
             @RequestParam(value = "events", required = false) List<Long> eventIds,
@@ -190,9 +192,11 @@ public class AdminController {
             @RequestParam(value = "rangeEnd", required = false)
             @DateTimeFormat(pattern = dateTimePattern) LocalDateTime rangeEnd,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
         return commentService.getFullInfoAboutAllCommentsByAdmin(
-                searchText, userIds, eventIds, onlyEdited, rangeStart, rangeEnd, from, size);
+                searchText, userIds, eventIds, onlyEdited, rangeStart, rangeEnd, from, size, cursor)
+                .toResponseEntity();
     }
 }
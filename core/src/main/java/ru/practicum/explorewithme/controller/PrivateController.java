@@ -3,6 +3,7 @@ package ru.practicum.explorewithme.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.explorewithme.dto.request.CommentRequestDto;
@@ -18,6 +19,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @Slf4j
@@ -38,12 +40,13 @@ public class PrivateController {
     }
 
     @GetMapping("/events")
-    public Collection<EventResponseDto> getAllEventsCreatedByUser(
+    public ResponseEntity<List<EventResponseDto>> getAllEventsCreatedByUser(
             @PathVariable(value = "userId") @Positive long userId,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
-        return eventService.getAllEventsCreatedByUser(userId, from, size);
+        return eventService.getAllEventsCreatedByUser(userId, from, size, cursor).toResponseEntity();
     }
 
     @PostMapping("/events")
@@ -2,17 +2,22 @@ package ru.practicum.explorewithme.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.explorewithme.cache.CachedResponse;
 import ru.practicum.explorewithme.dto.response.CategoryResponseDto;
+import ru.practicum.explorewithme.dto.response.CommentResponseDto;
 import ru.practicum.explorewithme.dto.response.CompilationResponseDto;
 import ru.practicum.explorewithme.dto.response.EventFullInfoResponseDto;
 import ru.practicum.explorewithme.dto.response.EventResponseDto;
 import ru.practicum.explorewithme.enums.EventsSortType;
+import ru.practicum.explorewithme.pagination.CursorPage;
 import ru.practicum.explorewithme.service.CategoryService;
+import ru.practicum.explorewithme.service.CommentService;
 import ru.practicum.explorewithme.service.CompilationService;
 import ru.practicum.explorewithme.service.EventService;
 
@@ -29,48 +34,56 @@ public class PublicController {
     private final CompilationService compilationService;
     private final CategoryService categoryService;
     private final EventService eventService;
+    private final CommentService commentService;
     private final String dateTimePattern = "yyyy-MM-dd HH:mm:ss";
 
     @Autowired
     public PublicController(CompilationService compilationService,
                             CategoryService categoryService,
-                            EventService eventService) {
+                            EventService eventService,
+                            CommentService commentService) {
         this.compilationService = compilationService;
         this.categoryService = categoryService;
         this.eventService = eventService;
+        this.commentService = commentService;
     }
 
     @GetMapping("/compilations")
-    public Collection<CompilationResponseDto> getAllEventsCompilations(
+    public ResponseEntity<List<CompilationResponseDto>> getAllEventsCompilations(
             @RequestParam(value = "pinned", required = false) Boolean pinned,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
 
-        return compilationService.getAllEventsCompilations(pinned, from, size);
+        CachedResponse<CursorPage<CompilationResponseDto>> compilationsResponse =
+                compilationService.getAllEventsCompilations(pinned, from, size, cursor);
+        return compilationsResponse.getBody().toResponseEntity(compilationsResponse.responseBuilder());
     }
 
     @GetMapping("/compilations/{compId}")
-    public CompilationResponseDto getEventsCompilationById(@PathVariable(value = "compId") @Positive long compId) {
+    public ResponseEntity<CompilationResponseDto> getEventsCompilationById(
+            @PathVariable(value = "compId") @Positive long compId) {
 
-        return compilationService.getEventsCompilationById(compId);
+        return compilationService.getEventsCompilationById(compId).toResponseEntity();
     }
 
     @GetMapping("/categories")
-    public Collection<CategoryResponseDto> getAllEventCategories(
+    public ResponseEntity<Collection<CategoryResponseDto>> getAllEventCategories(
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
             @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
 
-        return categoryService.getAllEventCategories(from, size);
+        return categoryService.getAllEventCategories(from, size).toResponseEntity();
     }
 
     @GetMapping("/categories/{catId}")
-    public CategoryResponseDto getEventCategoryById(@PathVariable(value = "catId") @Positive long catId) {
+    public ResponseEntity<CategoryResponseDto> getEventCategoryById(
+            @PathVariable(value = "catId") @Positive long catId) {
 
-        return categoryService.getEventCategoryById(catId);
+        return categoryService.getEventCategoryById(catId).toResponseEntity();
     }
 
     @GetMapping("/events")
-    public Collection<EventResponseDto> getAllPublishedEvents(
+    public ResponseEntity<List<EventResponseDto>> getAllPublishedEvents(
             @RequestParam(value = "text", required = false) String searchText,
             @RequestParam(value = "categories", required = false) List<Long> categoryIds,
             @RequestParam(value = "paid", required = false) Boolean paid,
@@ -82,19 +95,30 @@ public class PublicController {
             @RequestParam(value = "sort", defaultValue = "EVENT_DATE") String sortType,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero int from,
             @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             HttpServletRequest request) {
 
         EventsSortType eventsSortType = EventsSortType.findByType(sortType);
         return eventService.getAllPublishedEvents(searchText, categoryIds, paid, rangeStart, rangeEnd,
-                onlyAvailable, eventsSortType, from, size, request.getRequestURI(), request.getRemoteAddr());
+                onlyAvailable, eventsSortType, from, size, cursor, request.getRequestURI(), request.getRemoteAddr())
+                .toResponseEntity();
     }
 
     @GetMapping("/events/{id}")
-    public EventFullInfoResponseDto getFullInfoAboutPublishedEventById(
+    public ResponseEntity<EventFullInfoResponseDto> getFullInfoAboutPublishedEventById(
             @PathVariable(value = "id") @Positive long eventId,
             HttpServletRequest request) {
 
         return eventService.getFullInfoAboutPublishedEventById(
-                eventId, request.getRequestURI(), request.getRemoteAddr());
+                eventId, request.getRequestURI(), request.getRemoteAddr()).toResponseEntity();
+    }
+
+    @GetMapping("/events/{id}/comments")
+    public List<CommentResponseDto> getCommentsOfPublishedEvent(
+            @PathVariable(value = "id") @Positive long eventId,
+            @RequestParam(value = "afterId", defaultValue = "0") @PositiveOrZero long afterId,
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size) {
+
+        return commentService.getCommentsOfPublishedEvent(eventId, afterId, size);
     }
 }
@@ -1,7 +1,24 @@
 package ru.practicum.explorewithme.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.explorewithme.model.Category;
 
+import java.util.List;
+
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    List<Category> findAllByOrderByIdAsc();
+
+    @Query(value = "SELECT version " +
+            "FROM reference_data_versions " +
+            "WHERE name = 'categories'", nativeQuery = true)
+    Long findCategoriesVersion();
+
+    @Modifying
+    @Query(value = "UPDATE reference_data_versions " +
+            "SET version = version + 1 " +
+            "WHERE name = 'categories'", nativeQuery = true)
+    void incrementCategoriesVersion();
 }
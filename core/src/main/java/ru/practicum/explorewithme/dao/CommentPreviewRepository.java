@@ -0,0 +1,12 @@
+package ru.practicum.explorewithme.dao;
+
+import ru.practicum.explorewithme.model.EventCommentsPreview;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface CommentPreviewRepository {
+
+    Map<Long, EventCommentsPreview> findCommentsPreviewsByEventIds(Collection<Long> eventIds, int latestCount);
+
+}
@@ -0,0 +1,68 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.explorewithme.dto.response.CommentResponseDto;
+import ru.practicum.explorewithme.model.EventCommentsPreview;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CommentPreviewRepositoryImpl implements CommentPreviewRepository {
+    private static final String FIND_LATEST_COMMENTS_SQL =
+            "SELECT ranked.* " +
+            "FROM (" +
+                    "SELECT c.id, c.event_id, c.text, u.name AS author_name, " +
+                    "c.author_id = e.initiator_id AS is_author_initiator, c.is_edited, c.created_at, " +
+                    "ROW_NUMBER() OVER (PARTITION BY c.event_id ORDER BY c.id DESC) AS position, " +
+                    "COUNT(*) OVER (PARTITION BY c.event_id) AS comments_count " +
+                    "FROM comments AS c " +
+                    "JOIN users AS u ON u.id = c.author_id " +
+                    "JOIN events AS e ON e.id = c.event_id " +
+                    "WHERE c.event_id IN (:eventIds)" +
+            ") AS ranked " +
+            "WHERE ranked.position <= :latestCount " +
+            "ORDER BY ranked.event_id, ranked.id";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    public CommentPreviewRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public Map<Long, EventCommentsPreview> findCommentsPreviewsByEventIds(Collection<Long> eventIds,
+                                                                          int latestCount) {
+
+        Map<Long, EventCommentsPreview> previewsByEventIds = new HashMap<>();
+        if (eventIds.isEmpty()) {
+            return previewsByEventIds;
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("eventIds", eventIds)
+                .addValue("latestCount", latestCount);
+
+        namedParameterJdbcTemplate.query(FIND_LATEST_COMMENTS_SQL, parameters, (RowCallbackHandler) resultSet -> {
+            EventCommentsPreview preview = previewsByEventIds.computeIfAbsent(resultSet.getLong("event_id"),
+                    eventId -> new EventCommentsPreview(0L, new ArrayList<>()));
+
+            preview.setCommentsCount(resultSet.getLong("comments_count"));
+            preview.getComments().add(CommentResponseDto.builder()
+                    .id(resultSet.getLong("id"))
+                    .text(resultSet.getString("text"))
+                    .authorName(resultSet.getString("author_name"))
+                    .isAuthorInitiatorOfEvent(resultSet.getBoolean("is_author_initiator"))
+                    .isEdited(resultSet.getBoolean("is_edited"))
+                    .created(resultSet.getTimestamp("created_at").toLocalDateTime())
+                    .build());
+        });
+
+        return previewsByEventIds;
+    }
+}
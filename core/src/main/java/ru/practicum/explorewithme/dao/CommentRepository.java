@@ -1,7 +1,8 @@
 package ru.practicum.explorewithme.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,8 +13,9 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
-public interface CommentRepository extends JpaRepository<Comment, Long> {
+public interface CommentRepository extends JpaRepository<Comment, Long>, CommentPreviewRepository {
 
+    @EntityGraph(attributePaths = {"author", "event", "event.initiator"})
     @Query("SELECT c " +
             "FROM Comment AS c " +
             "WHERE (COALESCE (:searchText) IS NULL OR (upper(c.text) like upper(concat('%', :searchText, '%')))) " +
@@ -22,17 +24,21 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
             "AND (COALESCE (:userIds) IS NULL OR c.author.id IN :userIds) " +
             "AND (COALESCE (:eventIds) IS NULL OR c.event.id IN :eventIds) " +
             "AND (COALESCE (:onlyEdited) = false OR c.isEdited = :onlyEdited) " +
+            "AND (COALESCE (:afterId) IS NULL OR c.id > :afterId) " +
             "ORDER BY c.id ASC")
-    Page<Comment> findAllCommentsByParametersForAdmin(@Param("searchText") String searchText,
+    Slice<Comment> findAllCommentsByParametersForAdmin(@Param("searchText") String searchText,
                                                       @Param("userIds") List<Long> userIds,
                                                       @Param("eventIds") List<Long> eventIds,
                                                       @Param("onlyEdited") Boolean onlyEdited,
                                                       @Param("rangeStart") LocalDateTime rangeStart,
                                                       @Param("rangeEnd") LocalDateTime rangeEnd,
+                                                      @Param("afterId") Long afterId,
                                                       Pageable pageable);
 
+    @EntityGraph(attributePaths = {"author", "event", "event.initiator"})
     List<Comment> findByEventInOrderByCreatedAsc(Collection<Event> eventsCreatedByUser);
 
-    List<Comment> findByEventOrderByCreatedAsc(Event requiredEvent);
+    @EntityGraph(attributePaths = {"author", "event", "event.initiator"})
+    List<Comment> findByEventIdAndIdGreaterThanOrderByIdAsc(Long eventId, Long afterId, Pageable pageable);
 
 }
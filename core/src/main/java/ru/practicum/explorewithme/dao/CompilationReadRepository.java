@@ -0,0 +1,15 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.explorewithme.model.CompilationEventIds;
+
+import java.util.Optional;
+
+public interface CompilationReadRepository {
+
+    Slice<CompilationEventIds> findCompilationsWithEventIds(Boolean pinned, Long afterId, Pageable pageable);
+
+    Optional<CompilationEventIds> findCompilationWithEventIds(long compId);
+
+}
@@ -0,0 +1,79 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.explorewithme.model.CompilationEventIds;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class CompilationReadRepositoryImpl implements CompilationReadRepository {
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    public CompilationReadRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public Slice<CompilationEventIds> findCompilationsWithEventIds(Boolean pinned, Long afterId, Pageable pageable) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("pinned", pinned)
+                .addValue("afterId", afterId)
+                .addValue("offset", pageable.getOffset())
+                .addValue("limit", pageable.getPageSize() + 1);
+
+        List<CompilationEventIds> compilations = findWithEventIds("SELECT id, pinned, title " +
+                "FROM compilations " +
+                "WHERE TRUE " +
+                (pinned == null ? "" : "AND pinned = :pinned ") +
+                (afterId == null ? "" : "AND id > :afterId ") +
+                "ORDER BY id ASC " +
+                "OFFSET :offset LIMIT :limit", parameters);
+
+        boolean hasNext = compilations.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? compilations.subList(0, pageable.getPageSize()) : compilations,
+                pageable, hasNext);
+    }
+
+    @Override
+    public Optional<CompilationEventIds> findCompilationWithEventIds(long compId) {
+
+        return findWithEventIds("SELECT id, pinned, title " +
+                        "FROM compilations " +
+                        "WHERE id = :compId",
+                new MapSqlParameterSource("compId", compId)).stream()
+                .findFirst();
+    }
+
+    private List<CompilationEventIds> findWithEventIds(String compilationsQuery, MapSqlParameterSource parameters) {
+
+        Map<Long, CompilationEventIds> compilationsByIds = new LinkedHashMap<>();
+
+        namedParameterJdbcTemplate.query("SELECT c.id, c.pinned, c.title, ce.event_id " +
+                "FROM (" + compilationsQuery + ") AS c " +
+                "LEFT JOIN compilations_events AS ce ON ce.compilation_id = c.id " +
+                "ORDER BY c.id, ce.event_id", parameters, (RowCallbackHandler) resultSet -> {
+                    CompilationEventIds compilation = compilationsByIds.computeIfAbsent(resultSet.getLong("id"),
+                            compilationId -> new CompilationEventIds(compilationId, null, null, new ArrayList<>()));
+                    compilation.setPinned(resultSet.getBoolean("pinned"));
+                    compilation.setTitle(resultSet.getString("title"));
+
+                    long eventId = resultSet.getLong("event_id");
+                    if (!resultSet.wasNull()) {
+                        compilation.getEventIds().add(eventId);
+                    }
+                });
+
+        return new ArrayList<>(compilationsByIds.values());
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.explorewithme.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.explorewithme.enums.EventModerationState;
@@ -15,16 +17,30 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventSearchRepository,
+        EventViewsRepository {
 
     List<Event> findByCategory(Category category);
 
+    @EntityGraph(attributePaths = {"initiator", "location"})
     Set<Event> findByIdIn(Collection<Long> eventIds);
 
-    Page<Event> findByInitiatorOrderByCreatedOnAsc(User initiator, Pageable pageable);
+    @EntityGraph(attributePaths = {"initiator", "location"})
+    @Query("SELECT e " +
+            "FROM Event AS e " +
+            "WHERE e.initiator = :initiator " +
+            "AND (COALESCE (:afterCreatedOn) IS NULL OR (e.createdOn >= :afterCreatedOn " +
+            "AND (e.createdOn > :afterCreatedOn OR e.id > :afterId))) " +
+            "ORDER BY e.createdOn ASC, e.id ASC")
+    Slice<Event> findEventsOfInitiator(@Param("initiator") User initiator,
+                                       @Param("afterCreatedOn") LocalDateTime afterCreatedOn,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
 
+    @EntityGraph(attributePaths = {"initiator", "location"})
     Event findByInitiatorAndId(User initiator, Long id);
 
+    @EntityGraph(attributePaths = {"initiator", "location"})
     @Query("SELECT e " +
             "FROM Event AS e " +
             "WHERE (COALESCE (:rangeStart) IS NULL OR e.eventDate > :rangeStart) " +
@@ -32,39 +48,105 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "AND (COALESCE (:userIds) IS NULL OR e.initiator.id IN :userIds) " +
             "AND (COALESCE (:states) IS NULL OR e.state IN :states) " +
             "AND (COALESCE (:categoryIds) IS NULL OR e.category.id IN :categoryIds) " +
-            "ORDER BY e.createdOn ASC")
-    Page<Event> findAllEventsByParametersForAdmin(@Param("userIds") List<Long> userIds,
-                                                  @Param("states") Set<EventModerationState> states,
-                                                  @Param("categoryIds") List<Long> categoryIds,
-                                                  @Param("rangeStart") LocalDateTime rangeStart,
-                                                  @Param("rangeEnd") LocalDateTime rangeEnd,
-                                                  Pageable pageable);
+            "AND (COALESCE (:afterCreatedOn) IS NULL OR (e.createdOn >= :afterCreatedOn " +
+            "AND (e.createdOn > :afterCreatedOn OR e.id > :afterId))) " +
+            "ORDER BY e.createdOn ASC, e.id ASC")
+    Slice<Event> findAllEventsByParametersForAdmin(@Param("userIds") List<Long> userIds,
+                                                   @Param("states") Set<EventModerationState> states,
+                                                   @Param("categoryIds") List<Long> categoryIds,
+                                                   @Param("rangeStart") LocalDateTime rangeStart,
+                                                   @Param("rangeEnd") LocalDateTime rangeEnd,
+                                                   @Param("afterCreatedOn") LocalDateTime afterCreatedOn,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
 
+    @EntityGraph(attributePaths = {"initiator", "location"})
     @Query("SELECT e " +
             "FROM Event AS e " +
-            "WHERE (COALESCE (:searchText) IS NULL OR (upper(e.annotation) like upper(concat('%', :searchText, '%')) " +
-            "OR upper(e.description) like upper(concat('%', :searchText, '%')))) " +
-            "AND (COALESCE (:categoryIds) IS NULL OR e.category.id IN :categoryIds) " +
+            "WHERE (COALESCE (:categoryIds) IS NULL OR e.category.id IN :categoryIds) " +
             "AND (COALESCE (:paid) IS NULL OR e.paid = :paid) " +
             "AND (COALESCE (:onlyAvailable) = false OR " +
-            "(SELECT COUNT(r.id) " +
-            "FROM RequestForEvent AS r " +
-            "WHERE r.event.id = e.id AND r.status = 'CONFIRMED' " +
-            "GROUP BY r.event.id) < e.participantLimit OR e.participantLimit = 0) " +
+            "e.confirmedRequests < e.participantLimit OR e.participantLimit = 0) " +
             "AND ((COALESCE (:rangeStart) IS NOT NULL AND COALESCE (:rangeEnd) IS NOT NULL " +
             "AND e.eventDate BETWEEN :rangeStart AND :rangeEnd) " +
             "OR ((COALESCE (:rangeStart) IS NULL OR COALESCE (:rangeEnd) IS NULL) AND e.eventDate > CURRENT_TIMESTAMP)) " +
             "AND e.state = 'PUBLISHED' " +
-            "GROUP BY e " +
-            "ORDER BY e.eventDate ASC")
-    Page<Event> findAllPublishedEventsByParameters(@Param("searchText") String searchText,
-                                                   @Param("categoryIds") List<Long> categoryIds,
-                                                   @Param("paid") Boolean paid,
-                                                   @Param("onlyAvailable") Boolean onlyAvailable,
-                                                   @Param("rangeStart") LocalDateTime rangeStart,
-                                                   @Param("rangeEnd") LocalDateTime rangeEnd,
-                                                   Pageable pageable);
+            "AND (COALESCE (:afterEventDate) IS NULL OR (e.eventDate >= :afterEventDate " +
+            "AND (e.eventDate > :afterEventDate OR e.id > :afterId))) " +
+            "ORDER BY e.eventDate ASC, e.id ASC")
+    Slice<Event> findAllPublishedEventsByParameters(@Param("categoryIds") List<Long> categoryIds,
+                                                    @Param("paid") Boolean paid,
+                                                    @Param("onlyAvailable") Boolean onlyAvailable,
+                                                    @Param("rangeStart") LocalDateTime rangeStart,
+                                                    @Param("rangeEnd") LocalDateTime rangeEnd,
+                                                    @Param("afterEventDate") LocalDateTime afterEventDate,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
 
+    @EntityGraph(attributePaths = {"initiator", "location"})
+    @Query("SELECT e " +
+            "FROM Event AS e " +
+            "WHERE (COALESCE (:categoryIds) IS NULL OR e.category.id IN :categoryIds) " +
+            "AND (COALESCE (:paid) IS NULL OR e.paid = :paid) " +
+            "AND (COALESCE (:onlyAvailable) = false OR " +
+            "e.confirmedRequests < e.participantLimit OR e.participantLimit = 0) " +
+            "AND ((COALESCE (:rangeStart) IS NOT NULL AND COALESCE (:rangeEnd) IS NOT NULL " +
+            "AND e.eventDate BETWEEN :rangeStart AND :rangeEnd) " +
+            "OR ((COALESCE (:rangeStart) IS NULL OR COALESCE (:rangeEnd) IS NULL) AND e.eventDate > CURRENT_TIMESTAMP)) " +
+            "AND e.state = 'PUBLISHED' " +
+            "AND (COALESCE (:afterViews) IS NULL OR (e.views <= :afterViews " +
+            "AND (e.views < :afterViews OR e.id < :afterId))) " +
+            "ORDER BY e.views DESC, e.id DESC")
+    Slice<Event> findMostViewedPublishedEventsByParameters(@Param("categoryIds") List<Long> categoryIds,
+                                                           @Param("paid") Boolean paid,
+                                                           @Param("onlyAvailable") Boolean onlyAvailable,
+                                                           @Param("rangeStart") LocalDateTime rangeStart,
+                                                           @Param("rangeEnd") LocalDateTime rangeEnd,
+                                                           @Param("afterViews") Long afterViews,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    @Query("SELECT e.id " +
+            "FROM Event AS e " +
+            "WHERE e.state = 'PUBLISHED' " +
+            "AND e.id > :afterId " +
+            "ORDER BY e.id ASC")
+    List<Long> findPublishedEventIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"initiator", "location"})
     Event findByIdAndState(Long eventId, EventModerationState state);
 
+    @Modifying
+    @Query(value = "UPDATE events " +
+            "SET confirmed_requests = confirmed_requests + :delta " +
+            "WHERE id = :eventId", nativeQuery = true)
+    int addConfirmedRequests(@Param("eventId") Long eventId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE events " +
+            "SET confirmed_requests = confirmed_requests + :count " +
+            "WHERE id = :eventId " +
+            "AND (participant_limit = 0 OR confirmed_requests + :count <= participant_limit)", nativeQuery = true)
+    int admitConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    @Query(value = "SELECT confirmed_requests " +
+            "FROM events " +
+            "WHERE id = :eventId " +
+            "FOR UPDATE", nativeQuery = true)
+    Long findConfirmedRequestsForUpdate(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query(value = "UPDATE events " +
+            "SET confirmed_requests = :confirmedRequests " +
+            "WHERE id = :eventId", nativeQuery = true)
+    int setConfirmedRequests(@Param("eventId") Long eventId, @Param("confirmedRequests") long confirmedRequests);
+
+    @Query(value = "SELECT e.id " +
+            "FROM events AS e " +
+            "LEFT JOIN requests_for_events AS r ON r.event_id = e.id AND r.status = 'CONFIRMED' " +
+            "GROUP BY e.id " +
+            "HAVING e.confirmed_requests <> COUNT(r.id) " +
+            "ORDER BY e.id", nativeQuery = true)
+    List<Long> findIdsWithDriftedConfirmedRequests();
+
 }
@@ -0,0 +1,15 @@
+package ru.practicum.explorewithme.dao;
+
+import ru.practicum.explorewithme.enums.EventsSortType;
+import ru.practicum.explorewithme.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EventSearchRepository {
+
+    List<Long> searchPublishedEventIds(String searchText, List<Long> categoryIds, Boolean paid,
+                                       Boolean onlyAvailable, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                       EventsSortType sortType, PageCursor pageCursor, int offset, int limit);
+
+}
@@ -0,0 +1,116 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.explorewithme.enums.EventsSortType;
+import ru.practicum.explorewithme.pagination.PageCursor;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class EventSearchRepositoryImpl implements EventSearchRepository {
+    private static final String TEXT_SEARCH_CONFIGURATION = "russian";
+    private static final int SELECTIVE_SEARCH_MATCHES = 1000;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    public EventSearchRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public List<Long> searchPublishedEventIds(String searchText, List<Long> categoryIds, Boolean paid,
+                                              Boolean onlyAvailable, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                              EventsSortType sortType, PageCursor pageCursor,
+                                              int offset, int limit) {
+
+        boolean rangeGiven = rangeStart != null && rangeEnd != null;
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("searchText", searchText)
+                .addValue("searchPattern", "%" + escapeLikePattern(searchText) + "%")
+                .addValue("categoryIds", categoryIds)
+                .addValue("paid", paid)
+                .addValue("rangeStart", rangeGiven ? Timestamp.valueOf(rangeStart) : null)
+                .addValue("rangeEnd", rangeGiven ? Timestamp.valueOf(rangeEnd) : null)
+                .addValue("afterId", PageCursor.idOf(pageCursor))
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+
+        String query = "websearch_to_tsquery('" + TEXT_SEARCH_CONFIGURATION + "', :searchText)";
+        String afterCondition = "";
+        String ordering;
+
+        switch (sortType) {
+            case RELEVANCE:
+                ordering = "ts_rank_cd(e.search_vector, " + query + ") DESC, " +
+                        "word_similarity(:searchText, e.title) DESC, e.event_date ASC, e.id ASC ";
+                break;
+            case VIEWS:
+                if (pageCursor != null) {
+                    parameters.addValue("afterViews", PageCursor.numericSortKeyOf(pageCursor));
+                    afterCondition = "AND (e.views, e.id) < (:afterViews, :afterId) ";
+                }
+                ordering = "e.views DESC, e.id DESC ";
+                break;
+            default:
+                if (pageCursor != null) {
+                    parameters.addValue("afterEventDate",
+                            Timestamp.valueOf(PageCursor.dateTimeSortKeyOf(pageCursor)));
+                    afterCondition = "AND (e.event_date, e.id) > (:afterEventDate, :afterId) ";
+                }
+                ordering = "e.event_date ASC, e.id ASC ";
+        }
+
+        String conditions = "WHERE e.state = 'PUBLISHED' " +
+                "AND (e.search_vector @@ " + query + " " +
+                "OR e.title ILIKE :searchPattern " +
+                "OR e.annotation ILIKE :searchPattern " +
+                "OR e.description ILIKE :searchPattern) " +
+                (categoryIds == null || categoryIds.isEmpty() ? "" : "AND e.category_id IN (:categoryIds) ") +
+                (paid == null ? "" : "AND e.paid = :paid ") +
+                (Boolean.TRUE.equals(onlyAvailable)
+                        ? "AND (e.participant_limit = 0 OR e.confirmed_requests < e.participant_limit) "
+                        : "") +
+                (rangeGiven
+                        ? "AND e.event_date BETWEEN :rangeStart AND :rangeEnd "
+                        : "AND e.event_date > CURRENT_TIMESTAMP ") +
+                afterCondition;
+
+        parameters.addValue("matchedLimit", SELECTIVE_SEARCH_MATCHES + 1);
+        List<long[]> matchedEvents = namedParameterJdbcTemplate.query("WITH matched AS MATERIALIZED (" +
+                        "SELECT e.id, e.event_date, e.views, e.title, e.search_vector " +
+                        "FROM events AS e " +
+                        conditions +
+                        "LIMIT :matchedLimit) " +
+                        "SELECT e.id, COUNT(*) OVER () AS matches " +
+                        "FROM matched AS e " +
+                        "ORDER BY " + ordering +
+                        "OFFSET :offset LIMIT :limit",
+                parameters, (resultSet, rowNum) -> new long[]{resultSet.getLong("id"), resultSet.getLong("matches")});
+
+        if (matchedEvents.isEmpty() ? offset == 0 : matchedEvents.get(0)[1] <= SELECTIVE_SEARCH_MATCHES) {
+            return matchedEvents.stream()
+                    .map(matchedEvent -> matchedEvent[0])
+                    .collect(Collectors.toList());
+        }
+
+        return namedParameterJdbcTemplate.queryForList("SELECT e.id " +
+                        "FROM events AS e " +
+                        conditions +
+                        "ORDER BY " + ordering +
+                        "OFFSET :offset LIMIT :limit",
+                parameters, Long.class);
+    }
+
+    private String escapeLikePattern(String searchText) {
+        return searchText
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
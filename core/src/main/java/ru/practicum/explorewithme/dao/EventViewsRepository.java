@@ -0,0 +1,12 @@
+package ru.practicum.explorewithme.dao;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EventViewsRepository {
+
+    List<Long> updateViews(Map<Long, Long> viewsByEventIds);
+
+    boolean runWithAdvisoryLock(long lockKey, Runnable action);
+
+}
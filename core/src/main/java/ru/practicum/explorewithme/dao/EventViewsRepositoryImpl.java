@@ -0,0 +1,74 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class EventViewsRepositoryImpl implements EventViewsRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EventViewsRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> updateViews(Map<Long, Long> viewsByEventIds) {
+
+        if (viewsByEventIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map.Entry<Long, Long>> views = new ArrayList<>(viewsByEventIds.entrySet());
+        int[][] updatedRowsByBatches = jdbcTemplate.batchUpdate(
+                "UPDATE events SET views = ? WHERE id = ? AND views <> ?",
+                views, views.size(), (preparedStatement, eventViews) -> {
+                    preparedStatement.setLong(1, eventViews.getValue());
+                    preparedStatement.setLong(2, eventViews.getKey());
+                    preparedStatement.setLong(3, eventViews.getValue());
+                });
+
+        List<Long> updatedEventIds = new ArrayList<>();
+        int index = 0;
+        for (int[] updatedRowsOfBatch : updatedRowsByBatches) {
+            for (int updatedRows : updatedRowsOfBatch) {
+                if (updatedRows != 0) {
+                    updatedEventIds.add(views.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return updatedEventIds;
+    }
+
+    @Override
+    public boolean runWithAdvisoryLock(long lockKey, Runnable action) {
+
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                lock.setLong(1, lockKey);
+                try (ResultSet resultSet = lock.executeQuery()) {
+                    if (!resultSet.next() || !resultSet.getBoolean(1)) {
+                        return false;
+                    }
+                }
+            }
+
+            try {
+                action.run();
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    unlock.setLong(1, lockKey);
+                    unlock.execute();
+                }
+            }
+            return true;
+        }));
+    }
+}
@@ -1,37 +1,52 @@
 package ru.practicum.explorewithme.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import ru.practicum.explorewithme.model.ConfirmedRequestsQuantity;
+import ru.practicum.explorewithme.dto.response.RequestForEventResponseDto;
+import ru.practicum.explorewithme.enums.RequestForEventStatus;
 import ru.practicum.explorewithme.model.Event;
 import ru.practicum.explorewithme.model.RequestForEvent;
 import ru.practicum.explorewithme.model.User;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface RequestForEventRepository extends JpaRepository<RequestForEvent, Long> {
+public interface RequestForEventRepository extends JpaRepository<RequestForEvent, Long>,
+        RequestForEventStatusRepository {
 
     RequestForEvent findByEventAndRequester(Event eventToRequest, User requester);
 
-    List<RequestForEvent> findByRequesterOrderByCreatedAsc(User requester);
-
-    List<RequestForEvent> findByEventOrderByCreated(Event eventToRequestIn);
-
-    @Query("SELECT new ru.practicum.explorewithme.model.ConfirmedRequestsQuantity(r.event, COUNT(r.id)) " +
-            "FROM RequestForEvent r " +
-            "WHERE r.event IN :events " +
-            "AND r.status = 'CONFIRMED' " +
-            "GROUP BY r.event " +
-            "ORDER BY r.event ASC")
-    List<ConfirmedRequestsQuantity> countConfirmedRequestsByEvents(@Param("events") Collection<Event> events);
-
-    @Query("SELECT new ru.practicum.explorewithme.model.ConfirmedRequestsQuantity(r.event, COUNT(r.id)) " +
-            "FROM RequestForEvent r " +
-            "WHERE r.event = :event " +
-            "AND r.status = 'CONFIRMED' " +
-            "GROUP BY r.event")
-    ConfirmedRequestsQuantity countConfirmedRequestsBySingleEvent(@Param("event") Event event);
+    @Query("SELECT new ru.practicum.explorewithme.dto.response.RequestForEventResponseDto(" +
+            "r.created, r.event.id, r.id, r.requester.id, r.status) " +
+            "FROM RequestForEvent AS r " +
+            "WHERE r.requester.id = :requesterId " +
+            "ORDER BY r.created ASC")
+    List<RequestForEventResponseDto> findDtosByRequesterId(@Param("requesterId") Long requesterId);
+
+    @Query("SELECT new ru.practicum.explorewithme.dto.response.RequestForEventResponseDto(" +
+            "r.created, r.event.id, r.id, r.requester.id, r.status) " +
+            "FROM RequestForEvent AS r " +
+            "WHERE r.event.id = :eventId " +
+            "ORDER BY r.created ASC")
+    List<RequestForEventResponseDto> findDtosByEventId(@Param("eventId") Long eventId);
+
+    Optional<RequestForEvent> findFirstByIdInAndStatusNot(Collection<Long> ids, RequestForEventStatus status);
+
+    long countByEventIdAndStatus(Long eventId, RequestForEventStatus status);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE requests_for_events " +
+            "SET status = 'CANCELED' " +
+            "WHERE id = :requestId AND status = 'CONFIRMED'", nativeQuery = true)
+    int cancelConfirmedRequest(@Param("requestId") Long requestId);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE requests_for_events " +
+            "SET status = 'CANCELED' " +
+            "WHERE id = :requestId AND status NOT IN ('CONFIRMED', 'CANCELED')", nativeQuery = true)
+    int cancelUnconfirmedRequest(@Param("requestId") Long requestId);
 
 }
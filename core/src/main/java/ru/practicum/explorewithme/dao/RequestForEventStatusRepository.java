@@ -0,0 +1,14 @@
+package ru.practicum.explorewithme.dao;
+
+import ru.practicum.explorewithme.dto.response.RequestForEventResponseDto;
+import ru.practicum.explorewithme.enums.RequestForEventStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RequestForEventStatusRepository {
+
+    List<RequestForEventResponseDto> updateStatusOfPendingRequests(Long eventId, Collection<Long> requestIds,
+                                                                   RequestForEventStatus status);
+
+}
@@ -0,0 +1,67 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.explorewithme.dto.response.RequestForEventResponseDto;
+import ru.practicum.explorewithme.enums.RequestForEventStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public class RequestForEventStatusRepositoryImpl implements RequestForEventStatusRepository {
+    private static final String UPDATE_STATUS_OF_PENDING_REQUESTS_SQL =
+            "WITH candidates AS (" +
+                    "SELECT r.id, ROW_NUMBER() OVER (ORDER BY r.created_at, r.id) AS position " +
+                    "FROM requests_for_events AS r " +
+                    "WHERE r.id IN (:requestIds) AND r.event_id = :eventId AND r.status = 'PENDING'" +
+            "), decided AS (" +
+                    "SELECT c.id, " +
+                    "CASE WHEN :status <> 'CONFIRMED' THEN :status " +
+                    "WHEN e.participant_limit = 0 OR e.confirmed_requests + c.position <= e.participant_limit " +
+                    "THEN 'CONFIRMED' " +
+                    "ELSE 'REJECTED' END AS status " +
+                    "FROM candidates AS c " +
+                    "JOIN events AS e ON e.id = :eventId" +
+            "), updated AS (" +
+                    "UPDATE requests_for_events AS r " +
+                    "SET status = d.status " +
+                    "FROM decided AS d " +
+                    "WHERE r.id = d.id " +
+                    "RETURNING r.id, r.created_at, r.event_id, r.requester_id, r.status" +
+            "), counted AS (" +
+                    "UPDATE events " +
+                    "SET confirmed_requests = confirmed_requests + " +
+                    "(SELECT COUNT(*) FROM updated WHERE updated.status = 'CONFIRMED') " +
+                    "WHERE id = :eventId" +
+            ") " +
+            "SELECT id, created_at, event_id, requester_id, status " +
+            "FROM updated " +
+            "ORDER BY created_at, id";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    public RequestForEventStatusRepositoryImpl(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public List<RequestForEventResponseDto> updateStatusOfPendingRequests(Long eventId, Collection<Long> requestIds,
+                                                                          RequestForEventStatus status) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("requestIds", requestIds)
+                .addValue("status", status.name());
+
+        return namedParameterJdbcTemplate.query(UPDATE_STATUS_OF_PENDING_REQUESTS_SQL, parameters,
+                (resultSet, rowNum) -> RequestForEventResponseDto.builder()
+                        .id(resultSet.getLong("id"))
+                        .created(resultSet.getTimestamp("created_at").toLocalDateTime())
+                        .event(resultSet.getLong("event_id"))
+                        .requester(resultSet.getLong("requester_id"))
+                        .status(RequestForEventStatus.valueOf(resultSet.getString("status")))
+                        .build());
+    }
+}
@@ -1,7 +1,7 @@
 package ru.practicum.explorewithme.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +14,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u " +
             "FROM User AS u " +
             "WHERE (COALESCE (:userIds) IS NULL OR u.id IN :userIds) " +
+            "AND (COALESCE (:afterId) IS NULL OR u.id > :afterId) " +
             "ORDER BY u.id ASC")
-    Page<User> findRequiredUsers(@Param("userIds") List<Long> userIds, Pageable pageable);
+    Slice<User> findRequiredUsers(@Param("userIds") List<Long> userIds,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
 
 }
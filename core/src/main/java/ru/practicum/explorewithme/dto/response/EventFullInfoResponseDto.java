@@ -32,5 +32,6 @@ public class EventFullInfoResponseDto extends EventResponseDto {
     private EventModerationState state;
     private String title;
     private Long views;
+    private Long commentsCount;
     private List<CommentResponseDto> comments;
 }
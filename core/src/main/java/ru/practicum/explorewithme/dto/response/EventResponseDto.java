@@ -24,5 +24,6 @@ public class EventResponseDto {
     private Boolean paid;
     private String title;
     private Long views;
+    private Long commentsCount;
     private List<CommentResponseDto> comments;
 }
@@ -6,7 +6,8 @@ import java.util.Arrays;
 
 public enum EventsSortType {
     EVENT_DATE,
-    VIEWS;
+    VIEWS,
+    RELEVANCE;
 
     public static EventsSortType findByType(String sortType) {
         return Arrays.stream(values())
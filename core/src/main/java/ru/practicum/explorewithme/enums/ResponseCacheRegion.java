@@ -0,0 +1,7 @@
+package ru.practicum.explorewithme.enums;
+
+public enum ResponseCacheRegion {
+    CATEGORIES,
+    COMPILATIONS,
+    EVENTS
+}
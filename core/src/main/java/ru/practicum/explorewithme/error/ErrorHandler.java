@@ -13,6 +13,7 @@ import ru.practicum.explorewithme.exception.ConditionsNotMetException;
 import ru.practicum.explorewithme.exception.IncorrectRequestException;
 import ru.practicum.explorewithme.exception.LimitReachedException;
 import ru.practicum.explorewithme.exception.NotFoundException;
+import ru.practicum.explorewithme.exception.ServiceUnavailableException;
 
 import javax.validation.ConstraintViolationException;
 import java.time.LocalDateTime;
@@ -73,6 +74,18 @@ public class ErrorHandler {
                 .build();
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceUnavailableException(final ServiceUnavailableException exception) {
+        log.warn(exception.getMessage());
+        return ErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.toString())
+                .reason("The service is temporarily unavailable.")
+                .message(exception.getMessage())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable exception) {
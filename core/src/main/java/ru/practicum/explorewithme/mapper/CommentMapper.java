@@ -3,6 +3,7 @@ package ru.practicum.explorewithme.mapper;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.practicum.explorewithme.cache.CategoryCache;
 import ru.practicum.explorewithme.dto.request.CommentRequestDto;
 import ru.practicum.explorewithme.dto.response.CommentFullInfoResponseDto;
 import ru.practicum.explorewithme.dto.response.CommentResponseDto;
@@ -10,7 +11,7 @@ import ru.practicum.explorewithme.model.Comment;
 import ru.practicum.explorewithme.model.Event;
 import ru.practicum.explorewithme.model.User;
 
-@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, uses = CategoryCache.class)
 public interface CommentMapper {
 
     @Mapping(target = "id", ignore = true)
@@ -7,6 +7,7 @@ import ru.practicum.explorewithme.dto.request.CompilationRequestDto;
 import ru.practicum.explorewithme.dto.response.CompilationResponseDto;
 import ru.practicum.explorewithme.dto.response.EventResponseDto;
 import ru.practicum.explorewithme.model.Compilation;
+import ru.practicum.explorewithme.model.CompilationEventIds;
 import ru.practicum.explorewithme.model.Event;
 
 import java.util.Set;
@@ -20,4 +21,6 @@ public interface CompilationMapper {
 
     CompilationResponseDto compilationToDto(Compilation compilation, Set<EventResponseDto> events);
 
+    CompilationResponseDto compilationEventIdsToDto(CompilationEventIds compilation, Set<EventResponseDto> events);
+
 }
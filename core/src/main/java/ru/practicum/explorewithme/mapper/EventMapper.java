@@ -5,23 +5,28 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.cache.CategoryCache;
 import ru.practicum.explorewithme.dto.request.EventRequestDto;
 import ru.practicum.explorewithme.dto.response.EventFullInfoResponseDto;
 import ru.practicum.explorewithme.dto.response.EventResponseDto;
 import ru.practicum.explorewithme.model.*;
 
-@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, uses = CategoryCache.class)
 public interface EventMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "category", source = "categoryEntity")
     @Mapping(target = "initiator", source = "initiatorEntity")
     @Mapping(target = "location", source = "locationEntity")
+    @Mapping(target = "confirmedRequests", ignore = true)
+    @Mapping(target = "views", ignore = true)
     Event dtoToEvent(EventRequestDto eventRequestDto, Category categoryEntity,
                      User initiatorEntity, Location locationEntity);
 
+    @Mapping(target = "confirmedRequests", defaultValue = "0L")
     EventResponseDto eventToShortDto(Event event);
 
+    @Mapping(target = "confirmedRequests", defaultValue = "0L")
     EventFullInfoResponseDto eventToFullDto(Event event);
 
     @Mapping(target = "views", source = "hits")
@@ -30,7 +35,7 @@ public interface EventMapper {
 
     @Named(value = "mapUriToEventId")
     default Long mapUriToEventId(String uri) {
-        return Long.parseLong(String.valueOf(uri.charAt(uri.length() - 1)));
+        return Long.parseLong(uri.substring(uri.lastIndexOf('/') + 1));
     }
 
 }
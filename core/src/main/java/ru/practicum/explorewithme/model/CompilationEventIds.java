@@ -5,11 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class ConfirmedRequestsQuantity {
-    private Event event;
-    private Long confirmedRequests;
+public class CompilationEventIds {
+    private Long id;
+    private Boolean pinned;
+    private String title;
+    private List<Long> eventIds;
 }
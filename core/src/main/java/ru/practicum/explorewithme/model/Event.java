@@ -44,6 +44,8 @@ public class Event {
     private Boolean paid;
     @Column(name = "participant_limit", nullable = false)
     private Long participantLimit;
+    @Column(name = "confirmed_requests", nullable = false, insertable = false, updatable = false)
+    private Long confirmedRequests;
     @Column(name = "published_on")
     private LocalDateTime publishedOn;
     @Column(name = "request_moderation", nullable = false)
@@ -53,6 +55,8 @@ public class Event {
     private EventModerationState state;
     @Column(nullable = false)
     private String title;
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long views;
 
     @Override
     public boolean equals(Object o) {
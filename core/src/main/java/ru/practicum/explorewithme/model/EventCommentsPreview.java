@@ -0,0 +1,18 @@
+package ru.practicum.explorewithme.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.explorewithme.dto.response.CommentResponseDto;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EventCommentsPreview {
+    private Long commentsCount;
+    private List<CommentResponseDto> comments;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.explorewithme.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        return toResponseEntity(ResponseEntity.ok());
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity(ResponseEntity.BodyBuilder responseBuilder) {
+
+        if (nextCursor != null) {
+            responseBuilder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return responseBuilder.body(content);
+    }
+}
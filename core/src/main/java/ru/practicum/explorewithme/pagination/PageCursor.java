@@ -0,0 +1,94 @@
+package ru.practicum.explorewithme.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.explorewithme.exception.IncorrectRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+    private static final char SEPARATOR = '|';
+
+    private final String sortKey;
+    private final Long id;
+
+    public static PageCursor decode(String cursor) {
+
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decodedCursor.indexOf(SEPARATOR);
+            String sortKey = separatorIndex > 0 ? decodedCursor.substring(0, separatorIndex) : null;
+            return new PageCursor(sortKey, Long.parseLong(decodedCursor.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectRequestException("Incorrect page cursor: " + cursor);
+        }
+    }
+
+    public static Pageable pageRequest(PageCursor cursor, int from, int size) {
+        return PageRequest.of(cursor != null || from <= 0 ? 0 : from / size, size);
+    }
+
+    public static <T> String nextCursorOf(Slice<T> slice, Function<T, ?> sortKey, Function<T, Long> id) {
+
+        if (!slice.hasNext() || slice.isEmpty()) {
+            return null;
+        }
+        T lastElement = slice.getContent().get(slice.getNumberOfElements() - 1);
+        Object lastSortKey = sortKey.apply(lastElement);
+        return new PageCursor(lastSortKey == null ? null : lastSortKey.toString(), id.apply(lastElement)).encode();
+    }
+
+    public static <T> String nextCursorOf(Slice<T> slice, Function<T, Long> id) {
+        return nextCursorOf(slice, element -> null, id);
+    }
+
+    public static LocalDateTime dateTimeSortKeyOf(PageCursor cursor) {
+
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.getSortKey() == null) {
+            throw new IncorrectRequestException("Incorrect page cursor: sort key must be a date and time");
+        }
+        try {
+            return LocalDateTime.parse(cursor.getSortKey());
+        } catch (DateTimeParseException e) {
+            throw new IncorrectRequestException("Incorrect page cursor: sort key must be a date and time");
+        }
+    }
+
+    public static Long numericSortKeyOf(PageCursor cursor) {
+
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor.getSortKey());
+        } catch (NumberFormatException e) {
+            throw new IncorrectRequestException("Incorrect page cursor: sort key must be a number");
+        }
+    }
+
+    public static Long idOf(PageCursor cursor) {
+        return cursor == null ? null : cursor.getId();
+    }
+
+    public String encode() {
+
+        String rawCursor = (sortKey == null ? "" : sortKey) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(rawCursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
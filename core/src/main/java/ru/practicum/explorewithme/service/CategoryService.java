@@ -1,44 +1,58 @@
 package ru.practicum.explorewithme.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.explorewithme.cache.CachedResponse;
+import ru.practicum.explorewithme.cache.CategoryCache;
+import ru.practicum.explorewithme.cache.ResponseCache;
 import ru.practicum.explorewithme.dao.CategoryRepository;
 import ru.practicum.explorewithme.dao.EventRepository;
 import ru.practicum.explorewithme.dto.request.CategoryRequestDto;
 import ru.practicum.explorewithme.dto.response.CategoryResponseDto;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
 import ru.practicum.explorewithme.exception.ConditionsNotMetException;
 import ru.practicum.explorewithme.exception.NotFoundException;
 import ru.practicum.explorewithme.mapper.CategoryMapper;
 import ru.practicum.explorewithme.model.Category;
 import ru.practicum.explorewithme.model.Event;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryCache categoryCache;
+    private final ResponseCache responseCache;
 
     @Autowired
     public CategoryService(CategoryRepository categoryRepository,
                            EventRepository eventRepository,
-                           CategoryMapper categoryMapper) {
+                           CategoryMapper categoryMapper,
+                           CategoryCache categoryCache,
+                           ResponseCache responseCache) {
         this.categoryRepository = categoryRepository;
         this.eventRepository = eventRepository;
         this.categoryMapper = categoryMapper;
+        this.categoryCache = categoryCache;
+        this.responseCache = responseCache;
     }
 
+    @Transactional
     public CategoryResponseDto createCategoryByAdmin(CategoryRequestDto categoryRequestDto) {
 
-        return categoryMapper.categoryToDto(categoryRepository.save(categoryMapper.dtoToCategory(categoryRequestDto)));
+        CategoryResponseDto createdCategory =
+                categoryMapper.categoryToDto(categoryRepository.save(categoryMapper.dtoToCategory(categoryRequestDto)));
+        categoryCache.invalidate();
+
+        return createdCategory;
     }
 
+    @Transactional
     public void deleteCategoryByAdmin(long catId) {
 
         Category category = categoryRepository.findById(catId).orElseThrow(() -> {
@@ -51,8 +65,10 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(catId);
+        categoryCache.invalidate();
     }
 
+    @Transactional
     public CategoryResponseDto updateCategoryByAdmin(CategoryRequestDto categoryRequestDto, long catId) {
 
         Category categoryToUpdate = categoryRepository.findById(catId).orElseThrow(() -> {
@@ -60,25 +76,24 @@ public class CategoryService {
         });
 
         categoryToUpdate.setName(categoryRequestDto.getName());
-        return categoryMapper.categoryToDto(categoryRepository.save(categoryToUpdate));
-    }
+        CategoryResponseDto updatedCategory = categoryMapper.categoryToDto(categoryRepository.save(categoryToUpdate));
+        categoryCache.invalidate();
 
-    public Collection<CategoryResponseDto> getAllEventCategories(int from, int size) {
+        return updatedCategory;
+    }
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size, Sort.by("id").ascending());
-        List<Category> requestedCategories = categoryRepository.findAll(pageRequest).getContent();
+    public CachedResponse<Collection<CategoryResponseDto>> getAllEventCategories(int from, int size) {
 
-        return requestedCategories.stream()
-                .map(categoryMapper::categoryToDto)
-                .collect(Collectors.toUnmodifiableList());
+        int offset = from > 0 ? from / size * size : 0;
+        return responseCache.get(ResponseCacheRegion.CATEGORIES, Arrays.asList(offset, size),
+                () -> categoryCache.getCategories(offset, size));
     }
 
-    public CategoryResponseDto getEventCategoryById(long catId) {
-
-        Category category = categoryRepository.findById(catId).orElseThrow(() -> {
-            throw new NotFoundException("get category by id: Category with id=" + catId + " was not found");
-        });
+    public CachedResponse<CategoryResponseDto> getEventCategoryById(long catId) {
 
-        return categoryMapper.categoryToDto(category);
+        return responseCache.get(ResponseCacheRegion.CATEGORIES, catId, () ->
+                categoryCache.findCategoryById(catId).orElseThrow(() -> {
+                    throw new NotFoundException("get category by id: Category with id=" + catId + " was not found");
+                }));
     }
 }
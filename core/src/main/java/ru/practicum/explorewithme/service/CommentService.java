@@ -2,14 +2,17 @@ package ru.practicum.explorewithme.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.explorewithme.cache.ResponseCache;
 import ru.practicum.explorewithme.dao.CommentRepository;
 import ru.practicum.explorewithme.dao.EventRepository;
 import ru.practicum.explorewithme.dao.UserRepository;
 import ru.practicum.explorewithme.dto.request.CommentRequestDto;
 import ru.practicum.explorewithme.dto.response.CommentFullInfoResponseDto;
+import ru.practicum.explorewithme.dto.response.CommentResponseDto;
 import ru.practicum.explorewithme.enums.EventModerationState;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
 import ru.practicum.explorewithme.exception.ConditionsNotMetException;
 import ru.practicum.explorewithme.exception.IncorrectRequestException;
 import ru.practicum.explorewithme.exception.NotFoundException;
@@ -17,9 +20,10 @@ import ru.practicum.explorewithme.mapper.CommentMapper;
 import ru.practicum.explorewithme.model.Comment;
 import ru.practicum.explorewithme.model.Event;
 import ru.practicum.explorewithme.model.User;
+import ru.practicum.explorewithme.pagination.CursorPage;
+import ru.practicum.explorewithme.pagination.PageCursor;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,37 +33,62 @@ public class CommentService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final CommentMapper commentMapper;
+    private final ResponseCache responseCache;
 
     @Autowired
     public CommentService(CommentRepository commentRepository,
                           UserRepository userRepository,
                           EventRepository eventRepository,
-                          CommentMapper commentMapper) {
+                          CommentMapper commentMapper,
+                          ResponseCache responseCache) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
         this.eventRepository = eventRepository;
         this.commentMapper = commentMapper;
+        this.responseCache = responseCache;
     }
 
-    public Collection<CommentFullInfoResponseDto> getFullInfoAboutAllCommentsByAdmin(String searchText,
+    public CursorPage<CommentFullInfoResponseDto> getFullInfoAboutAllCommentsByAdmin(String searchText,
                                                                                      List<Long> userIds,
                                                                                      List<Long> eventIds,
                                                                                      Boolean onlyEdited,
                                                                                      LocalDateTime rangeStart,
                                                                                      LocalDateTime rangeEnd,
-                                                                                     int from, int size) {
+                                                                                     int from, int size,
+                                                                                     String cursor) {
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
-
-        List<Comment> requestedComments =
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Slice<Comment> requestedComments =
                 commentRepository.findAllCommentsByParametersForAdmin(
-                        searchText, userIds, eventIds, onlyEdited, rangeStart, rangeEnd, pageRequest).getContent();
+                        searchText, userIds, eventIds, onlyEdited, rangeStart, rangeEnd,
+                        PageCursor.idOf(pageCursor), PageCursor.pageRequest(pageCursor, from, size));
 
-        return requestedComments.stream()
+        return new CursorPage<>(requestedComments.stream()
                 .map(commentMapper::commentToFullDto)
                 .peek(commentFullInfoResponseDto -> commentFullInfoResponseDto.setIsAuthorInitiatorOfEvent(
                         commentFullInfoResponseDto.getAuthor().getId()
                                 .equals(commentFullInfoResponseDto.getEvent().getInitiator().getId())))
+                .collect(Collectors.toUnmodifiableList()),
+                PageCursor.nextCursorOf(requestedComments, Comment::getId));
+    }
+
+    public List<CommentResponseDto> getCommentsOfPublishedEvent(long eventId, long afterId, int size) {
+
+        if (eventRepository.findByIdAndState(eventId, EventModerationState.PUBLISHED) == null) {
+            throw new NotFoundException("get comments of published event: Event with id=" + eventId +
+                    " was not found");
+        }
+
+        List<Comment> requestedComments = commentRepository.findByEventIdAndIdGreaterThanOrderByIdAsc(
+                eventId, afterId, PageRequest.of(0, size));
+
+        return requestedComments.stream()
+                .map(comment -> {
+                    CommentResponseDto commentResponseDto = commentMapper.commentToShortDto(comment);
+                    commentResponseDto.setIsAuthorInitiatorOfEvent(
+                            comment.getEvent().getInitiator().getId().equals(comment.getAuthor().getId()));
+                    return commentResponseDto;
+                })
                 .collect(Collectors.toUnmodifiableList());
     }
 
@@ -82,6 +111,7 @@ public class CommentService {
                         commentRepository.save(commentMapper.dtoToComment(commentRequestDto, eventToComment, author)));
 
         createdCommentDto.setIsAuthorInitiatorOfEvent(author.getId().equals(eventToComment.getInitiator().getId()));
+        invalidateCachedEvent(eventId);
 
         return createdCommentDto;
     }
@@ -125,14 +155,16 @@ public class CommentService {
         }
 
         commentRepository.deleteById(commentId);
+        invalidateCachedEvent(commentToDelete.getEvent().getId());
     }
 
     public void deleteCommentByAdmin(long commentId) {
 
-        commentRepository.findById(commentId).orElseThrow(() -> {
+        Comment commentToDelete = commentRepository.findById(commentId).orElseThrow(() -> {
             throw new NotFoundException("deletion of comment by admin: Comment with id=" + commentId + " was not found");
         });
         commentRepository.deleteById(commentId);
+        invalidateCachedEvent(commentToDelete.getEvent().getId());
     }
 
     public CommentFullInfoResponseDto updateCommentByAdmin(CommentRequestDto commentRequestDto, long commentId) {
@@ -158,7 +190,13 @@ public class CommentService {
 
         updatedCommentDto.setIsAuthorInitiatorOfEvent(
                 commentToUpdate.getAuthor().getId().equals(commentToUpdate.getEvent().getInitiator().getId()));
+        invalidateCachedEvent(commentToUpdate.getEvent().getId());
 
         return updatedCommentDto;
     }
+
+    private void invalidateCachedEvent(long eventId) {
+        responseCache.invalidate(ResponseCacheRegion.EVENTS, eventId);
+        responseCache.invalidate(ResponseCacheRegion.COMPILATIONS);
+    }
 }
@@ -1,78 +1,59 @@
 package ru.practicum.explorewithme.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.explorewithme.cache.CachedResponse;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
+import ru.practicum.explorewithme.cache.ResponseCache;
 import ru.practicum.explorewithme.dao.CompilationRepository;
 import ru.practicum.explorewithme.dao.EventRepository;
-import ru.practicum.explorewithme.dao.RequestForEventRepository;
 import ru.practicum.explorewithme.dto.request.CompilationRequestDto;
 import ru.practicum.explorewithme.dto.response.CompilationResponseDto;
 import ru.practicum.explorewithme.dto.response.EventResponseDto;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
 import ru.practicum.explorewithme.exception.NotFoundException;
 import ru.practicum.explorewithme.mapper.CompilationMapper;
-import ru.practicum.explorewithme.mapper.EventMapper;
 import ru.practicum.explorewithme.model.Compilation;
-import ru.practicum.explorewithme.model.ConfirmedRequestsQuantity;
 import ru.practicum.explorewithme.model.Event;
+import ru.practicum.explorewithme.pagination.CursorPage;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
-    private final EventMapper eventMapper;
-    private final RequestForEventRepository requestForEventRepository;
+    private final CompilationReadModel compilationReadModel;
+    private final ResponseCache responseCache;
 
     @Autowired
     public CompilationService(CompilationRepository compilationRepository,
                               EventRepository eventRepository,
                               CompilationMapper compilationMapper,
-                              EventMapper eventMapper,
-                              RequestForEventRepository requestForEventRepository) {
+                              CompilationReadModel compilationReadModel,
+                              ResponseCache responseCache) {
         this.compilationRepository = compilationRepository;
         this.eventRepository = eventRepository;
         this.compilationMapper = compilationMapper;
-        this.eventMapper = eventMapper;
-        this.requestForEventRepository = requestForEventRepository;
+        this.compilationReadModel = compilationReadModel;
+        this.responseCache = responseCache;
     }
 
-    public Collection<CompilationResponseDto> getAllEventsCompilations(Boolean pinned, int from, int size) {
+    public CachedResponse<CursorPage<CompilationResponseDto>> getAllEventsCompilations(Boolean pinned, int from,
+                                                                                       int size, String cursor) {
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<Compilation> requestedCompilations =
-                compilationRepository.findRequiredCompilations(pinned, pageRequest).getContent();
-
-        Set<Event> eventsOfCompilation = requestedCompilations.stream()
-                .flatMap(compilation -> compilation.getEvents().stream())
-                .collect(Collectors.toSet());
-
-        Set<EventResponseDto> eventDtosOfCompilation =
-                getEventResponseDtosWithConfirmedRequests(eventsOfCompilation);
-
-        return requestedCompilations.stream()
-                .map(compilation -> compilationMapper.compilationToDto(compilation,
-                        eventDtosOfCompilation.stream()
-                                .filter(eventResponseDto -> compilation.getEvents().stream()
-                                        .anyMatch(event -> eventResponseDto.getId().equals(event.getId())))
-                                .collect(Collectors.toSet())))
-                .collect(Collectors.toUnmodifiableList());
+        return responseCache.get(ResponseCacheRegion.COMPILATIONS, Arrays.asList(pinned, from, size, cursor),
+                () -> compilationReadModel.getCompilations(pinned, from, size, cursor));
     }
 
-    public CompilationResponseDto getEventsCompilationById(Long compId) {
-
-        Compilation compilation = compilationRepository.findById(compId).orElseThrow(() -> {
-            throw new NotFoundException("get compilation by id: Compilation with id=" + compId + " was not found");
-        });
-
-        Set<EventResponseDto> eventDtosOfCompilation =
-                getEventResponseDtosWithConfirmedRequests(compilation.getEvents());
+    public CachedResponse<CompilationResponseDto> getEventsCompilationById(long compId) {
 
-        return compilationMapper.compilationToDto(compilation, eventDtosOfCompilation);
+        return responseCache.get(ResponseCacheRegion.COMPILATIONS, compId, () ->
+                compilationReadModel.findCompilationById(compId).orElseThrow(() -> {
+                    throw new NotFoundException("get compilation by id: Compilation with id=" + compId +
+                            " was not found");
+                }));
     }
 
     public CompilationResponseDto createCompilationByAdmin(CompilationRequestDto compilationRequestDto) {
@@ -89,11 +70,15 @@ public class CompilationService {
         }
 
         Set<EventResponseDto> eventDtosOfCompilation =
-                getEventResponseDtosWithConfirmedRequests(eventsOfCompilation);
+                getEventResponseDtos(eventsOfCompilation);
 
-        return compilationMapper.compilationToDto(
+        CompilationResponseDto createdCompilation = compilationMapper.compilationToDto(
                 compilationRepository.save(compilationMapper.dtoToCompilation(
                         compilationRequestDto, eventsOfCompilation)), eventDtosOfCompilation);
+        compilationReadModel.invalidateAll();
+        responseCache.invalidate(ResponseCacheRegion.COMPILATIONS);
+
+        return createdCompilation;
     }
 
     public void deleteCompilationByAdmin(long compId) {
@@ -102,6 +87,8 @@ public class CompilationService {
             throw new NotFoundException("deletion of compilation: Compilation with id=" + compId + " was not found");
         });
         compilationRepository.deleteById(compId);
+        compilationReadModel.invalidateAll();
+        responseCache.invalidate(ResponseCacheRegion.COMPILATIONS);
     }
 
     public CompilationResponseDto updateCompilationByAdmin(CompilationRequestDto compilationRequestDto, long compId) {
@@ -125,32 +112,17 @@ public class CompilationService {
         compilationToUpdate.setTitle(compilationToUpdate.getTitle());
 
         Set<EventResponseDto> eventDtosOfCompilation =
-                getEventResponseDtosWithConfirmedRequests(compilationToUpdate.getEvents());
+                getEventResponseDtos(compilationToUpdate.getEvents());
 
-        return compilationMapper.compilationToDto(
+        CompilationResponseDto updatedCompilation = compilationMapper.compilationToDto(
                 compilationRepository.save(compilationToUpdate), eventDtosOfCompilation);
-    }
-
-    private Set<EventResponseDto> getEventResponseDtosWithConfirmedRequests(Set<Event> eventsOfCompilation) {
-
-        Map<Long, Long> confirmedRequestsQuantityByEventIds;
-        Set<EventResponseDto> eventDtosOfCompilation;
+        compilationReadModel.invalidateAll();
+        responseCache.invalidate(ResponseCacheRegion.COMPILATIONS);
 
-        if (!eventsOfCompilation.isEmpty()) {
-            confirmedRequestsQuantityByEventIds =
-                    requestForEventRepository.countConfirmedRequestsByEvents(eventsOfCompilation).stream()
-                            .collect(Collectors.toMap(
-                                    confirmedRequestsQuantity -> confirmedRequestsQuantity.getEvent().getId(),
-                                    ConfirmedRequestsQuantity::getConfirmedRequests));
+        return updatedCompilation;
+    }
 
-            eventDtosOfCompilation = eventsOfCompilation.stream()
-                    .map(eventMapper::eventToShortDto)
-                    .peek(eventResponseDto -> eventResponseDto.setConfirmedRequests(
-                            confirmedRequestsQuantityByEventIds.get(eventResponseDto.getId())))
-                    .collect(Collectors.toSet());
-        } else {
-            eventDtosOfCompilation = Collections.emptySet();
-        }
-        return eventDtosOfCompilation;
+    private Set<EventResponseDto> getEventResponseDtos(Set<Event> eventsOfCompilation) {
+        return new HashSet<>(compilationReadModel.mapEventsWithViews(eventsOfCompilation).values());
     }
 }
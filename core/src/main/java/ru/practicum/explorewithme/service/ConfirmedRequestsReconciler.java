@@ -0,0 +1,67 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
+import ru.practicum.explorewithme.dao.EventRepository;
+import ru.practicum.explorewithme.dao.RequestForEventRepository;
+import ru.practicum.explorewithme.enums.RequestForEventStatus;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class ConfirmedRequestsReconciler {
+    private final EventRepository eventRepository;
+    private final RequestForEventRepository requestForEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CompilationReadModel compilationReadModel;
+    private final Counter reconciledEvents;
+
+    @Autowired
+    public ConfirmedRequestsReconciler(EventRepository eventRepository,
+                                       RequestForEventRepository requestForEventRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       CompilationReadModel compilationReadModel,
+                                       MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.requestForEventRepository = requestForEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compilationReadModel = compilationReadModel;
+        this.reconciledEvents = meterRegistry.counter("ewm.confirmed-requests.reconciled");
+    }
+
+    @Scheduled(initialDelayString = "${ewm.confirmed-requests.reconciliation-interval-ms:3600000}",
+            fixedDelayString = "${ewm.confirmed-requests.reconciliation-interval-ms:3600000}")
+    public void reconcileConfirmedRequests() {
+
+        List<Long> driftedEventIds = eventRepository.findIdsWithDriftedConfirmedRequests();
+
+        for (Long eventId : driftedEventIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (eventRepository.findConfirmedRequestsForUpdate(eventId) == null) {
+                        return;
+                    }
+                    long confirmedRequests =
+                            requestForEventRepository.countByEventIdAndStatus(eventId, RequestForEventStatus.CONFIRMED);
+                    eventRepository.setConfirmedRequests(eventId, confirmedRequests);
+                    compilationReadModel.invalidateEvent(eventId);
+                });
+                reconciledEvents.increment();
+            } catch (RuntimeException e) {
+                log.warn("confirmed requests: failed to reconcile counter of event {}: {}", eventId, e.toString());
+            }
+        }
+
+        if (!driftedEventIds.isEmpty()) {
+            log.info("confirmed requests: reconciled counters of {} events", driftedEventIds.size());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.explorewithme.dao.CommentRepository;
+import ru.practicum.explorewithme.dto.response.CommentResponseDto;
+import ru.practicum.explorewithme.dto.response.EventResponseDto;
+import ru.practicum.explorewithme.exception.ServiceUnavailableException;
+import ru.practicum.explorewithme.mapper.CommentMapper;
+import ru.practicum.explorewithme.model.Comment;
+import ru.practicum.explorewithme.model.Event;
+import ru.practicum.explorewithme.model.EventCommentsPreview;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class EventDtoEnricher {
+    private final EventViewsCache eventViewsCache;
+    private final CommentRepository commentRepository;
+    private final CommentMapper commentMapper;
+    private final ThreadPoolExecutor databaseLookupExecutor;
+    private final ThreadPoolExecutor viewsLookupExecutor;
+    private final long viewsTimeoutMs;
+    private final long databaseTimeoutMs;
+    private final boolean latestCommentsOnly;
+    private final int latestCommentsCount;
+    private final Timer viewsLatency;
+    private final Timer commentsLatency;
+    private final Counter degradedViews;
+
+    @Autowired
+    public EventDtoEnricher(EventViewsCache eventViewsCache,
+                            CommentRepository commentRepository,
+                            CommentMapper commentMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${ewm.enrichment.pool-size:8}") int poolSize,
+                            @Value("${ewm.enrichment.queue-capacity:200}") int queueCapacity,
+                            @Value("${ewm.enrichment.views-pool-size:4}") int viewsPoolSize,
+                            @Value("${ewm.enrichment.views-queue-capacity:100}") int viewsQueueCapacity,
+                            @Value("${ewm.enrichment.views-timeout-ms:1000}") long viewsTimeoutMs,
+                            @Value("${ewm.enrichment.database-timeout-ms:5000}") long databaseTimeoutMs,
+                            @Value("${ewm.comments.inline-mode:all}") String commentsInlineMode,
+                            @Value("${ewm.comments.latest-count:3}") int latestCommentsCount) {
+        this.eventViewsCache = eventViewsCache;
+        this.commentRepository = commentRepository;
+        this.commentMapper = commentMapper;
+        this.viewsTimeoutMs = viewsTimeoutMs;
+        this.databaseTimeoutMs = databaseTimeoutMs;
+        this.latestCommentsOnly = "latest".equalsIgnoreCase(commentsInlineMode);
+        this.latestCommentsCount = latestCommentsCount;
+        this.databaseLookupExecutor = createLookupExecutor("event-enrichment-", poolSize, queueCapacity);
+        this.viewsLookupExecutor = createLookupExecutor("event-views-lookup-", viewsPoolSize, viewsQueueCapacity);
+
+        this.viewsLatency = meterRegistry.timer("ewm.enrichment.leg.latency", "leg", "views");
+        this.commentsLatency = meterRegistry.timer("ewm.enrichment.leg.latency", "leg", "comments");
+        this.degradedViews = meterRegistry.counter("ewm.enrichment.views.degraded");
+    }
+
+    @PreDestroy
+    public void stop() {
+        databaseLookupExecutor.shutdownNow();
+        viewsLookupExecutor.shutdownNow();
+    }
+
+    public <T extends EventResponseDto> List<T> mapAndEnrich(List<Event> events, Function<Event, T> eventToDto,
+                                                             boolean uniqueViews) {
+
+        if (events.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> eventIds = events.stream()
+                .map(Event::getId)
+                .collect(Collectors.toList());
+
+        CompletableFuture<Map<Long, Long>> viewsLookup = lookUp(viewsLookupExecutor, viewsLatency,
+                () -> eventViewsCache.getViews(eventIds, uniqueViews));
+
+        CompletableFuture<Map<Long, EventCommentsPreview>> commentsLookup = lookUp(databaseLookupExecutor, commentsLatency,
+                () -> latestCommentsOnly
+                        ? commentRepository.findCommentsPreviewsByEventIds(eventIds, latestCommentsCount)
+                        : findAllComments(events));
+
+        Map<Long, EventCommentsPreview> commentsByEventIds = awaitDatabaseLookup(commentsLookup, "comments");
+        Map<Long, Long> viewsByEventIds = awaitViewsLookup(viewsLookup, events, eventIds, uniqueViews);
+
+        return events.stream()
+                .map(event -> {
+                    T eventResponseDto = eventToDto.apply(event);
+                    eventResponseDto.setViews(viewsByEventIds.getOrDefault(event.getId(), 0L));
+                    EventCommentsPreview commentsPreview = commentsByEventIds.get(event.getId());
+                    eventResponseDto.setCommentsCount(commentsPreview == null ? 0L : commentsPreview.getCommentsCount());
+                    eventResponseDto.setComments(
+                            commentsPreview == null ? Collections.emptyList() : commentsPreview.getComments());
+                    return eventResponseDto;
+                })
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private Map<Long, EventCommentsPreview> findAllComments(List<Event> events) {
+
+        return commentRepository.findByEventInOrderByCreatedAsc(events).stream()
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getEvent().getId(),
+                        Collectors.collectingAndThen(
+                                Collectors.mapping(this::commentToShortDto, Collectors.toUnmodifiableList()),
+                                comments -> new EventCommentsPreview((long) comments.size(), comments))));
+    }
+
+    private static ThreadPoolExecutor createLookupExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor lookupExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        lookupExecutor.allowCoreThreadTimeOut(true);
+        return lookupExecutor;
+    }
+
+    private <T> CompletableFuture<T> lookUp(ThreadPoolExecutor lookupExecutor, Timer latency, Supplier<T> lookup) {
+        try {
+            return CompletableFuture.supplyAsync(() -> latency.record(lookup), lookupExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T awaitDatabaseLookup(CompletableFuture<T> lookup, String lookupName) {
+        try {
+            return lookup.get(databaseTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            lookup.cancel(true);
+            throw new ServiceUnavailableException("enrichment of events: Lookup of " + lookupName +
+                    " did not complete within " + databaseTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("enrichment of events: Interrupted while waiting for " +
+                    lookupName);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ServiceUnavailableException("enrichment of events: Lookup of " + lookupName +
+                        " was rejected, all enrichment threads are busy");
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Map<Long, Long> awaitViewsLookup(CompletableFuture<Map<Long, Long>> lookup, List<Event> events,
+                                             List<Long> eventIds, boolean uniqueViews) {
+        try {
+            return lookup.get(viewsTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            lookup.cancel(true);
+            degradedViews.increment();
+            log.warn("enrichment of events: views are unavailable, using last known values: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<Long, Long> lastKnownViews = eventViewsCache.getLastKnownViews(eventIds, uniqueViews);
+        Map<Long, Long> viewsByEventIds = new HashMap<>();
+        for (Event event : events) {
+            Long views = lastKnownViews.getOrDefault(event.getId(), event.getViews());
+            viewsByEventIds.put(event.getId(), views == null ? 0L : views);
+        }
+        return viewsByEventIds;
+    }
+
+    private CommentResponseDto commentToShortDto(Comment comment) {
+
+        CommentResponseDto commentResponseDto = commentMapper.commentToShortDto(comment);
+        commentResponseDto.setIsAuthorInitiatorOfEvent(
+                comment.getEvent().getInitiator().getId().equals(comment.getAuthor().getId()));
+
+        return commentResponseDto;
+    }
+}
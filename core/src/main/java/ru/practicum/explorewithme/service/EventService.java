@@ -1,12 +1,15 @@
 package ru.practicum.explorewithme.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import ru.practicum.explorewithme.StatsRequestDto;
-import ru.practicum.explorewithme.StatsResponseDto;
-import ru.practicum.explorewithme.client.StatsClient;
+import ru.practicum.explorewithme.cache.CachedResponse;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
+import ru.practicum.explorewithme.cache.ResponseCache;
+import ru.practicum.explorewithme.client.StatsHitsSender;
 import ru.practicum.explorewithme.dao.*;
 import ru.practicum.explorewithme.dto.request.EventRequestDto;
 import ru.practicum.explorewithme.dto.response.EventFullInfoResponseDto;
@@ -14,78 +17,67 @@ import ru.practicum.explorewithme.dto.response.EventResponseDto;
 import ru.practicum.explorewithme.enums.EventModerationAction;
 import ru.practicum.explorewithme.enums.EventModerationState;
 import ru.practicum.explorewithme.enums.EventsSortType;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
 import ru.practicum.explorewithme.exception.ConditionsNotMetException;
 import ru.practicum.explorewithme.exception.IncorrectRequestException;
 import ru.practicum.explorewithme.exception.NotFoundException;
-import ru.practicum.explorewithme.mapper.CommentMapper;
 import ru.practicum.explorewithme.mapper.EventMapper;
 import ru.practicum.explorewithme.model.*;
+import ru.practicum.explorewithme.pagination.CursorPage;
+import ru.practicum.explorewithme.pagination.PageCursor;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class EventService {
-    private final StatsClient statsClient;
+    private final EventDtoEnricher eventDtoEnricher;
+    private final StatsHitsSender statsHitsSender;
     private final EventRepository eventRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final LocationService locationService;
     private final EventMapper eventMapper;
-    private final RequestForEventRepository requestForEventRepository;
-    private final CommentRepository commentRepository;
-    private final CommentMapper commentMapper;
-    private final DateTimeFormatter pattern = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final ResponseCache responseCache;
+    private final CompilationReadModel compilationReadModel;
 
     @Autowired
-    public EventService(StatsClient statsClient,
+    public EventService(EventDtoEnricher eventDtoEnricher,
+                        StatsHitsSender statsHitsSender,
                         EventRepository eventRepository,
                         CategoryRepository categoryRepository,
                         UserRepository userRepository,
                         LocationService locationService,
                         EventMapper eventMapper,
-                        RequestForEventRepository requestForEventRepository,
-                        CommentRepository commentRepository,
-                        CommentMapper commentMapper) {
-        this.statsClient = statsClient;
+                        ResponseCache responseCache,
+                        CompilationReadModel compilationReadModel) {
+        this.eventDtoEnricher = eventDtoEnricher;
+        this.statsHitsSender = statsHitsSender;
         this.eventRepository = eventRepository;
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.locationService = locationService;
         this.eventMapper = eventMapper;
-        this.requestForEventRepository = requestForEventRepository;
-        this.commentRepository = commentRepository;
-        this.commentMapper = commentMapper;
+        this.responseCache = responseCache;
+        this.compilationReadModel = compilationReadModel;
     }
 
-    public Collection<EventResponseDto> getAllEventsCreatedByUser(long userId, int from, int size) {
+    public CursorPage<EventResponseDto> getAllEventsCreatedByUser(long userId, int from, int size, String cursor) {
 
         User eventsCreator = userRepository.findById(userId).orElseThrow(() -> {
             throw new NotFoundException("get all events created by user: User with id=" + userId + " was not found");
         });
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<Event> eventsCreatedByUser =
-                eventRepository.findByInitiatorOrderByCreatedOnAsc(eventsCreator, pageRequest).getContent();
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Slice<Event> eventsCreatedByUser = eventRepository.findEventsOfInitiator(eventsCreator,
+                PageCursor.dateTimeSortKeyOf(pageCursor), PageCursor.idOf(pageCursor),
+                PageCursor.pageRequest(pageCursor, from, size));
 
-        if (eventsCreatedByUser.isEmpty()) {
-            return Collections.emptyList();
-        } else {
-            List<EventViews> eventsViews = getViewsOfAllEvents(eventsCreatedByUser);
-
-            List<ConfirmedRequestsQuantity> confirmedRequestsQuantityByEvents =
-                    requestForEventRepository.countConfirmedRequestsByEvents(eventsCreatedByUser);
-
-            List<Comment> commentsOfEvents = commentRepository.findByEventInOrderByCreatedAsc(eventsCreatedByUser);
-
-            return eventsCreatedByUser.stream()
-                    .map(eventMapper::eventToShortDto)
-                    .peek(eventResponseDto -> setViewsAndConfirmedRequestsAndComments(
-                            eventsViews, confirmedRequestsQuantityByEvents, commentsOfEvents, eventResponseDto))
-                    .collect(Collectors.toUnmodifiableList());
-        }
+        return new CursorPage<>(
+                eventDtoEnricher.mapAndEnrich(eventsCreatedByUser.getContent(), eventMapper::eventToShortDto, false),
+                PageCursor.nextCursorOf(eventsCreatedByUser, Event::getCreatedOn, Event::getId));
     }
 
     public EventFullInfoResponseDto createEventByUser(EventRequestDto eventRequestDto, long userId) {
@@ -138,28 +130,7 @@ public class EventService {
                     "Event with id=" + eventId + " was not found");
         }
 
-        EventFullInfoResponseDto eventFullInfoResponseDto = getEventFullInfoResponseDtoWithViews(requiredEvent);
-
-        ConfirmedRequestsQuantity confirmedRequestsQuantity =
-                requestForEventRepository.countConfirmedRequestsBySingleEvent(requiredEvent);
-
-        eventFullInfoResponseDto.setConfirmedRequests(
-                confirmedRequestsQuantity == null ? 0L : confirmedRequestsQuantity.getConfirmedRequests());
-
-        List<Comment> commentsOfEvent = commentRepository.findByEventOrderByCreatedAsc(requiredEvent);
-        Map<Long, Boolean> authorIsInitiatorOfEventByCommentIds = commentsOfEvent.stream()
-                .collect(Collectors.toMap(
-                        Comment::getId,
-                        comment -> comment.getEvent().getInitiator().getId().equals(comment.getAuthor().getId())));
-
-        eventFullInfoResponseDto.setComments(commentsOfEvent.stream()
-                .map(commentMapper::commentToShortDto)
-                .peek(commentResponseDto ->
-                        commentResponseDto.setIsAuthorInitiatorOfEvent(
-                                authorIsInitiatorOfEventByCommentIds.get(commentResponseDto.getId())))
-                .collect(Collectors.toUnmodifiableList()));
-
-        return eventFullInfoResponseDto;
+        return eventDtoEnricher.mapAndEnrich(List.of(requiredEvent), eventMapper::eventToFullDto, true).get(0);
     }
 
     public EventFullInfoResponseDto updateEventByUser(EventRequestDto eventRequestDto, long userId, long eventId) {
@@ -178,7 +149,10 @@ public class EventService {
 
         if (eventRequestDto.getStateAction() == EventModerationAction.CANCEL_REVIEW) {
             eventToUpdate.setState(EventModerationState.CANCELED);
-            return eventMapper.eventToFullDto(eventRepository.save(eventToUpdate));
+            EventFullInfoResponseDto canceledEventResponseDto =
+                    eventMapper.eventToFullDto(eventRepository.save(eventToUpdate));
+            compilationReadModel.invalidateEvent(eventId);
+            return canceledEventResponseDto;
         }
 
         updateEventFields(eventRequestDto, eventToUpdate);
@@ -186,6 +160,7 @@ public class EventService {
 
         EventFullInfoResponseDto updatedEventResponseDto =
                 eventMapper.eventToFullDto(eventRepository.save(eventToUpdate));
+        compilationReadModel.invalidateEvent(eventId);
         updatedEventResponseDto.setViews(0L);
         updatedEventResponseDto.setConfirmedRequests(0L);
         updatedEventResponseDto.setComments(Collections.emptyList());
@@ -193,12 +168,13 @@ public class EventService {
         return updatedEventResponseDto;
     }
 
-    public Collection<EventFullInfoResponseDto> getFullInfoAboutAllEventsByAdmin(List<Long> userIds,
+    public CursorPage<EventFullInfoResponseDto> getFullInfoAboutAllEventsByAdmin(List<Long> userIds,
                                                                                  List<String> statesOfEvent,
                                                                                  List<Long> categoryIds,
                                                                                  LocalDateTime rangeStart,
                                                                                  LocalDateTime rangeEnd,
-                                                                                 int from, int size) {
+                                                                                 int from, int size,
+                                                                                 String cursor) {
 
         Set<EventModerationState> statesAsEnums = null;
         if (statesOfEvent != null) {
@@ -207,27 +183,16 @@ public class EventService {
                     .collect(Collectors.toSet());
         }
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<Event> requestedEvents =
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Slice<Event> requestedEvents =
                 eventRepository.findAllEventsByParametersForAdmin(
-                        userIds, statesAsEnums, categoryIds, rangeStart, rangeEnd, pageRequest).getContent();
-
-        if (requestedEvents.isEmpty()) {
-            return Collections.emptyList();
-        } else {
-            List<EventViews> eventsViews = getViewsOfAllEvents(requestedEvents);
+                        userIds, statesAsEnums, categoryIds, rangeStart, rangeEnd,
+                        PageCursor.dateTimeSortKeyOf(pageCursor), PageCursor.idOf(pageCursor),
+                        PageCursor.pageRequest(pageCursor, from, size));
 
-            List<ConfirmedRequestsQuantity> confirmedRequestsQuantityByEvents =
-                    requestForEventRepository.countConfirmedRequestsByEvents(requestedEvents);
-
-            List<Comment> commentsOfEvents = commentRepository.findByEventInOrderByCreatedAsc(requestedEvents);
-
-            return requestedEvents.stream()
-                    .map(eventMapper::eventToFullDto)
-                    .peek(eventResponseDto -> setViewsAndConfirmedRequestsAndComments(
-                            eventsViews, confirmedRequestsQuantityByEvents, commentsOfEvents, eventResponseDto))
-                    .collect(Collectors.toUnmodifiableList());
-        }
+        return new CursorPage<>(
+                eventDtoEnricher.mapAndEnrich(requestedEvents.getContent(), eventMapper::eventToFullDto, false),
+                PageCursor.nextCursorOf(requestedEvents, Event::getCreatedOn, Event::getId));
     }
 
     public EventFullInfoResponseDto updateEventAndPublicationStatusEditByAdmin(EventRequestDto eventRequestDto,
@@ -260,11 +225,14 @@ public class EventService {
         updatedEventResponseDto.setViews(0L);
         updatedEventResponseDto.setConfirmedRequests(0L);
         updatedEventResponseDto.setComments(Collections.emptyList());
+        responseCache.invalidate(ResponseCacheRegion.EVENTS, eventId);
+        responseCache.invalidate(ResponseCacheRegion.COMPILATIONS);
+        compilationReadModel.invalidateEvent(eventId);
 
         return updatedEventResponseDto;
     }
 
-    public Collection<EventResponseDto> getAllPublishedEvents(String searchText,
+    public CursorPage<EventResponseDto> getAllPublishedEvents(String searchText,
                                                               List<Long> categoryIds,
                                                               Boolean paid,
                                                               LocalDateTime rangeStart,
@@ -272,6 +240,7 @@ public class EventService {
                                                               Boolean onlyAvailable,
                                                               EventsSortType sortType,
                                                               int from, int size,
+                                                              String cursor,
                                                               String requestURI,
                                                               String remoteIpAddress) {
 
@@ -279,106 +248,98 @@ public class EventService {
             throw new IncorrectRequestException("get all published events: Start time cannot be after end time");
         }
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
+        boolean textSearch = searchText != null && !searchText.isBlank();
+        PageCursor pageCursor = PageCursor.decode(cursor);
+
+        if (pageCursor != null && textSearch && sortType == EventsSortType.RELEVANCE) {
+            throw new IncorrectRequestException("get all published events: " +
+                    "Cursor pagination is not supported for sort RELEVANCE, use from and size");
+        }
+
+        Pageable pageRequest = PageCursor.pageRequest(pageCursor, from, size);
 
-        List<Event> publishedEvents =
-                eventRepository.findAllPublishedEventsByParameters(
-                        searchText, categoryIds, paid, onlyAvailable, rangeStart, rangeEnd, pageRequest).getContent();
+        Slice<Event> publishedEvents;
+        if (textSearch) {
+            publishedEvents = searchPublishedEvents(searchText, categoryIds, paid, onlyAvailable,
+                    rangeStart, rangeEnd, sortType, pageCursor, pageRequest);
+        } else if (sortType == EventsSortType.VIEWS) {
+            publishedEvents = eventRepository.findMostViewedPublishedEventsByParameters(
+                    categoryIds, paid, onlyAvailable, rangeStart, rangeEnd,
+                    PageCursor.numericSortKeyOf(pageCursor), PageCursor.idOf(pageCursor), pageRequest);
+        } else {
+            publishedEvents = eventRepository.findAllPublishedEventsByParameters(
+                    categoryIds, paid, onlyAvailable, rangeStart, rangeEnd,
+                    PageCursor.dateTimeSortKeyOf(pageCursor), PageCursor.idOf(pageCursor), pageRequest);
+        }
 
         if (publishedEvents.isEmpty()) {
             registerRequestToEndpoint(requestURI, remoteIpAddress);
-            return Collections.emptyList();
+            return new CursorPage<>(Collections.emptyList(), null);
         }
 
-        List<EventViews> eventsViews = getViewsOfAllEvents(publishedEvents);
-        List<ConfirmedRequestsQuantity> confirmedRequestsQuantityByEvents =
-                requestForEventRepository.countConfirmedRequestsByEvents(publishedEvents);
-        List<Comment> commentsOfEvents = commentRepository.findByEventInOrderByCreatedAsc(publishedEvents);
+        List<EventResponseDto> eventResponseDtos =
+                eventDtoEnricher.mapAndEnrich(publishedEvents.getContent(), eventMapper::eventToShortDto, false);
 
         registerRequestToEndpoint(requestURI, remoteIpAddress);
 
-        if (sortType == EventsSortType.EVENT_DATE) {
-            return publishedEvents.stream()
-                    .map(eventMapper::eventToShortDto)
-                    .peek(eventResponseDto -> setViewsAndConfirmedRequestsAndComments(
-                            eventsViews, confirmedRequestsQuantityByEvents, commentsOfEvents, eventResponseDto))
-                    .collect(Collectors.toUnmodifiableList());
+        String nextCursor;
+        if (sortType == EventsSortType.VIEWS) {
+            nextCursor = PageCursor.nextCursorOf(publishedEvents, Event::getViews, Event::getId);
+        } else if (textSearch && sortType == EventsSortType.RELEVANCE) {
+            nextCursor = null;
         } else {
-            return publishedEvents.stream()
-                    .map(eventMapper::eventToShortDto)
-                    .peek(eventResponseDto -> setViewsAndConfirmedRequestsAndComments(
-                            eventsViews, confirmedRequestsQuantityByEvents, commentsOfEvents, eventResponseDto))
-                    .sorted(Comparator.comparing(EventResponseDto::getViews).reversed())
-                    .collect(Collectors.toUnmodifiableList());
+            nextCursor = PageCursor.nextCursorOf(publishedEvents, Event::getEventDate, Event::getId);
         }
+        return new CursorPage<>(eventResponseDtos, nextCursor);
     }
 
-    public EventFullInfoResponseDto getFullInfoAboutPublishedEventById(long eventId,
-                                                                       String requestURI,
-                                                                       String remoteIpAddress) {
+    private Slice<Event> searchPublishedEvents(String searchText, List<Long> categoryIds, Boolean paid,
+                                               Boolean onlyAvailable, LocalDateTime rangeStart,
+                                               LocalDateTime rangeEnd, EventsSortType sortType,
+                                               PageCursor pageCursor, Pageable pageRequest) {
 
-        Event publishedEvent = eventRepository.findByIdAndState(eventId, EventModerationState.PUBLISHED);
+        List<Long> foundEventIds = eventRepository.searchPublishedEventIds(searchText.strip(), categoryIds, paid,
+                onlyAvailable, rangeStart, rangeEnd, sortType, pageCursor,
+                (int) pageRequest.getOffset(), pageRequest.getPageSize() + 1);
 
-        if (publishedEvent == null) {
-            throw new NotFoundException("get full info of published event: " +
-                    "Event with id=" + eventId + " was not found");
+        boolean hasNext = foundEventIds.size() > pageRequest.getPageSize();
+        if (hasNext) {
+            foundEventIds = foundEventIds.subList(0, pageRequest.getPageSize());
+        }
+        if (foundEventIds.isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageRequest, false);
         }
 
-        EventFullInfoResponseDto eventFullInfoResponseDto = getEventFullInfoResponseDtoWithViews(publishedEvent);
-        ConfirmedRequestsQuantity confirmedRequestsQuantity =
-                requestForEventRepository.countConfirmedRequestsBySingleEvent(publishedEvent);
+        Map<Long, Event> foundEventsByIds = eventRepository.findByIdIn(foundEventIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
 
-        eventFullInfoResponseDto.setConfirmedRequests(
-                confirmedRequestsQuantity == null ? 0L : confirmedRequestsQuantity.getConfirmedRequests());
+        return new SliceImpl<>(foundEventIds.stream()
+                .map(foundEventsByIds::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()), pageRequest, hasNext);
+    }
 
-        List<Comment> commentsOfEvent = commentRepository.findByEventOrderByCreatedAsc(publishedEvent);
-        Map<Long, Boolean> authorIsInitiatorOfEventByCommentIds = commentsOfEvent.stream()
-                .collect(Collectors.toMap(
-                        Comment::getId,
-                        comment -> comment.getEvent().getInitiator().getId().equals(comment.getAuthor().getId())));
+    public CachedResponse<EventFullInfoResponseDto> getFullInfoAboutPublishedEventById(long eventId,
+                                                                                       String requestURI,
+                                                                                       String remoteIpAddress) {
 
-        eventFullInfoResponseDto.setComments(commentsOfEvent.stream()
-                .map(commentMapper::commentToShortDto)
-                .peek(commentResponseDto ->
-                        commentResponseDto.setIsAuthorInitiatorOfEvent(
-                                authorIsInitiatorOfEventByCommentIds.get(commentResponseDto.getId())))
-                .collect(Collectors.toUnmodifiableList()));
+        CachedResponse<EventFullInfoResponseDto> eventFullInfoResponse =
+                responseCache.get(ResponseCacheRegion.EVENTS, eventId, () -> findFullInfoAboutPublishedEvent(eventId));
 
         registerRequestToEndpoint(requestURI, remoteIpAddress);
-        return eventFullInfoResponseDto;
+        return eventFullInfoResponse;
     }
 
-    private void setViewsAndConfirmedRequestsAndComments(List<EventViews> eventsViews,
-                                                         List<ConfirmedRequestsQuantity> confirmedRequestsQuantityByEvents,
-                                                         List<Comment> commentsOfEvents,
-                                                         EventResponseDto eventResponseDto) {
-
-        Long views = eventsViews.stream()
-                .filter(eventViews -> eventResponseDto.getId().equals(eventViews.getEventId()))
-                .findFirst()
-                .map(EventViews::getViews)
-                .orElse(0L);
-        eventResponseDto.setViews(views);
-
-        Long confirmedRequests = confirmedRequestsQuantityByEvents.stream()
-                .filter(quantityByEvent -> quantityByEvent.getEvent().getId().equals(eventResponseDto.getId()))
-                .findFirst()
-                .map(ConfirmedRequestsQuantity::getConfirmedRequests)
-                .orElse(0L);
-        eventResponseDto.setConfirmedRequests(confirmedRequests);
-
-        Map<Long, Boolean> authorIsInitiatorOfEventByCommentIds = commentsOfEvents.stream()
-                .collect(Collectors.toMap(
-                        Comment::getId,
-                        comment -> comment.getEvent().getInitiator().getId().equals(comment.getAuthor().getId())));
-
-        eventResponseDto.setComments(commentsOfEvents.stream()
-                .filter(comment -> comment.getEvent().getId().equals(eventResponseDto.getId()))
-                .map(commentMapper::commentToShortDto)
-                .peek(commentResponseDto ->
-                        commentResponseDto.setIsAuthorInitiatorOfEvent(
-                                authorIsInitiatorOfEventByCommentIds.get(commentResponseDto.getId())))
-                .collect(Collectors.toUnmodifiableList()));
+    private EventFullInfoResponseDto findFullInfoAboutPublishedEvent(long eventId) {
+
+        Event publishedEvent = eventRepository.findByIdAndState(eventId, EventModerationState.PUBLISHED);
+
+        if (publishedEvent == null) {
+            throw new NotFoundException("get full info of published event: " +
+                    "Event with id=" + eventId + " was not found");
+        }
+
+        return eventDtoEnricher.mapAndEnrich(List.of(publishedEvent), eventMapper::eventToFullDto, true).get(0);
     }
 
     private void updateEventFields(EventRequestDto eventRequestDto, Event eventToUpdate) {
@@ -433,46 +394,11 @@ public class EventService {
 
     private void registerRequestToEndpoint(String requestURI, String remoteIpAddress) {
 
-        statsClient.registerEndpointHit(StatsRequestDto.builder()
+        statsHitsSender.send(StatsRequestDto.builder()
                 .app("ewm-main-service")
                 .uri(requestURI)
                 .ip(remoteIpAddress)
                 .timestamp(LocalDateTime.now())
                 .build());
     }
-
-    private List<EventViews> getViewsOfAllEvents(List<Event> events) {
-
-        String startTime = LocalDateTime.now().minusYears(100).format(pattern);
-        String endTime = LocalDateTime.now().plusYears(100).format(pattern);
-
-        List<String> uris = events.stream()
-                .map((Event event) -> "/events/" + event.getId())
-                .collect(Collectors.toList());
-
-        List<StatsResponseDto> statsOfViews = statsClient.getStats(startTime, endTime, uris, false);
-
-        return statsOfViews.stream()
-                .map(eventMapper::statsDtoToEventViews)
-                .collect(Collectors.toList());
-    }
-
-    private EventFullInfoResponseDto getEventFullInfoResponseDtoWithViews(Event requiredEvent) {
-
-        String startTime = LocalDateTime.now().minusYears(100).format(pattern);
-        String endTime = LocalDateTime.now().plusYears(100).format(pattern);
-        List<String> uris = Collections.singletonList("/events/" + requiredEvent.getId());
-
-        List<StatsResponseDto> statsOfViews = statsClient.getStats(startTime, endTime, uris, true);
-
-        EventFullInfoResponseDto eventFullInfoResponseDto = eventMapper.eventToFullDto(requiredEvent);
-
-        eventFullInfoResponseDto.setViews(statsOfViews.stream()
-                .map(eventMapper::statsDtoToEventViews)
-                .findFirst()
-                .map(EventViews::getViews)
-                .orElse(0L));
-
-        return eventFullInfoResponseDto;
-    }
 }
@@ -0,0 +1,196 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+@Component
+@Slf4j
+public class EventViewsCache {
+    private final EventViewsLoader eventViewsLoader;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final int maxSize;
+    private final Map<ViewsKey, CachedViews> cachedViews;
+    private final ExecutorService refresher;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter refreshes;
+
+    @Autowired
+    public EventViewsCache(EventViewsLoader eventViewsLoader,
+                           MeterRegistry meterRegistry,
+                           @Value("${ewm.views-cache.ttl-ms:0}") long ttlMs,
+                           @Value("${ewm.views-cache.refresh-ahead-ms:0}") long refreshAheadMs,
+                           @Value("${ewm.views-cache.max-size:10000}") int maxSize) {
+        this.eventViewsLoader = eventViewsLoader;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.refreshAheadNanos = Math.min(refreshAheadMs, ttlMs) * 1_000_000;
+        this.maxSize = maxSize;
+        this.cachedViews = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ViewsKey, CachedViews> eldest) {
+                return size() > EventViewsCache.this.maxSize;
+            }
+        };
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-views-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        meterRegistry.gauge("ewm.views-cache.size", cachedViews, this::sizeOf);
+        this.cacheHits = meterRegistry.counter("ewm.views-cache.requests", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("ewm.views-cache.requests", "result", "miss");
+        this.refreshes = meterRegistry.counter("ewm.views-cache.refreshes");
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds, boolean unique) {
+
+        if (ttlNanos <= 0) {
+            long loadedAt = System.nanoTime();
+            Map<Long, Long> loadedViews = loadViews(eventIds, unique);
+            store(eventIds, loadedViews, unique, loadedAt);
+            return loadedViews;
+        }
+
+        Map<Long, Long> viewsByEventIds = new HashMap<>();
+        List<Long> missedEventIds = new ArrayList<>();
+        List<Long> eventIdsToRefresh = new ArrayList<>();
+        long now = System.nanoTime();
+
+        synchronized (cachedViews) {
+            for (Long eventId : eventIds) {
+                CachedViews cached = cachedViews.get(new ViewsKey(eventId, unique));
+                long age = cached == null ? Long.MAX_VALUE : now - cached.loadedAtNanos;
+
+                if (age >= ttlNanos) {
+                    missedEventIds.add(eventId);
+                    continue;
+                }
+                viewsByEventIds.put(eventId, cached.views);
+
+                if (refreshAheadNanos > 0 && age >= ttlNanos - refreshAheadNanos && !cached.refreshing) {
+                    cached.refreshing = true;
+                    eventIdsToRefresh.add(eventId);
+                }
+            }
+        }
+
+        cacheHits.increment(viewsByEventIds.size());
+        cacheMisses.increment(missedEventIds.size());
+
+        if (!missedEventIds.isEmpty()) {
+            Map<Long, Long> loadedViews = loadViews(missedEventIds, unique);
+            store(missedEventIds, loadedViews, unique, now);
+            viewsByEventIds.putAll(loadedViews);
+        }
+        if (!eventIdsToRefresh.isEmpty()) {
+            refreshAsync(eventIdsToRefresh, unique);
+        }
+
+        return viewsByEventIds;
+    }
+
+    public Map<Long, Long> getLastKnownViews(Collection<Long> eventIds, boolean unique) {
+
+        Map<Long, Long> viewsByEventIds = new HashMap<>();
+        synchronized (cachedViews) {
+            for (Long eventId : eventIds) {
+                CachedViews cached = cachedViews.get(new ViewsKey(eventId, unique));
+                if (cached != null) {
+                    viewsByEventIds.put(eventId, cached.views);
+                }
+            }
+        }
+        return viewsByEventIds;
+    }
+
+    private void refreshAsync(List<Long> eventIds, boolean unique) {
+        try {
+            refresher.execute(() -> {
+                long loadedAt = System.nanoTime();
+                try {
+                    store(eventIds, loadViews(eventIds, unique), unique, loadedAt);
+                    refreshes.increment();
+                } catch (RestClientException e) {
+                    log.warn("event views cache: failed to refresh views of {} events: {}",
+                            eventIds.size(), e.getMessage());
+                    release(eventIds, unique);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(eventIds, unique);
+        }
+    }
+
+    private void store(Collection<Long> eventIds, Map<Long, Long> viewsByEventIds, boolean unique, long loadedAt) {
+        synchronized (cachedViews) {
+            for (Long eventId : eventIds) {
+                cachedViews.put(new ViewsKey(eventId, unique),
+                        new CachedViews(viewsByEventIds.getOrDefault(eventId, 0L), loadedAt));
+            }
+        }
+    }
+
+    private void release(List<Long> eventIds, boolean unique) {
+        synchronized (cachedViews) {
+            for (Long eventId : eventIds) {
+                CachedViews cached = cachedViews.get(new ViewsKey(eventId, unique));
+                if (cached != null) {
+                    cached.refreshing = false;
+                }
+            }
+        }
+    }
+
+    private Map<Long, Long> loadViews(Collection<Long> eventIds, boolean unique) {
+        return eventViewsLoader.loadViews(eventIds, unique);
+    }
+
+    private double sizeOf(Map<ViewsKey, CachedViews> views) {
+        synchronized (views) {
+            return views.size();
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class ViewsKey {
+        private final Long eventId;
+        private final boolean unique;
+    }
+
+    private static class CachedViews {
+        private final long views;
+        private final long loadedAtNanos;
+        private boolean refreshing;
+
+        CachedViews(long views, long loadedAtNanos) {
+            this.views = views;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.explorewithme.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.client.StatsClient;
+import ru.practicum.explorewithme.mapper.EventMapper;
+import ru.practicum.explorewithme.model.EventViews;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+public class EventViewsLoader {
+    private static final Pattern EVENT_URI = Pattern.compile("/events/\\d{1,18}");
+
+    private final StatsClient statsClient;
+    private final EventMapper eventMapper;
+    private final DateTimeFormatter pattern = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    public EventViewsLoader(StatsClient statsClient, EventMapper eventMapper) {
+        this.statsClient = statsClient;
+        this.eventMapper = eventMapper;
+    }
+
+    public Map<Long, Long> loadViews(Collection<Long> eventIds, boolean unique) {
+
+        String startTime = LocalDateTime.now().minusYears(100).format(pattern);
+        String endTime = LocalDateTime.now().plusYears(100).format(pattern);
+
+        List<String> uris = eventIds.stream()
+                .map(eventId -> "/events/" + eventId)
+                .collect(Collectors.toList());
+
+        List<StatsResponseDto> statsOfViews = statsClient.getStats(startTime, endTime, uris, unique);
+
+        return statsOfViews.stream()
+                .map(eventMapper::statsDtoToEventViews)
+                .collect(Collectors.toMap(EventViews::getEventId, EventViews::getViews, (first, second) -> first));
+    }
+
+    public Set<Long> findHitEventIds(LocalDateTime start, LocalDateTime end) {
+
+        List<StatsResponseDto> statsOfHits = statsClient.getStats(start.format(pattern), end.format(pattern),
+                null, false);
+
+        return statsOfHits.stream()
+                .filter(statsOfHit -> statsOfHit.getUri() != null && EVENT_URI.matcher(statsOfHit.getUri()).matches())
+                .map(statsOfHit -> eventMapper.mapUriToEventId(statsOfHit.getUri()))
+                .collect(Collectors.toSet());
+    }
+}
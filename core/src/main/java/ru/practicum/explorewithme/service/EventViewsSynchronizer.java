@@ -0,0 +1,114 @@
+package ru.practicum.explorewithme.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
+import ru.practicum.explorewithme.dao.EventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class EventViewsSynchronizer {
+    private static final long SYNC_LOCK_KEY = 0x65776d5f76696577L;
+
+    private final EventRepository eventRepository;
+    private final EventViewsLoader eventViewsLoader;
+    private final CompilationReadModel compilationReadModel;
+    private final int batchSize;
+    private final Duration hitsOverlap;
+    private final Duration fullSyncInterval;
+    private LocalDateTime syncedUntil;
+    private LocalDateTime lastFullSyncAt;
+
+    @Autowired
+    public EventViewsSynchronizer(EventRepository eventRepository,
+                                  EventViewsLoader eventViewsLoader,
+                                  CompilationReadModel compilationReadModel,
+                                  @Value("${ewm.views-sync.batch-size:200}") int batchSize,
+                                  @Value("${ewm.views-sync.hits-overlap-ms:300000}") long hitsOverlapMs,
+                                  @Value("${ewm.views-sync.full-interval-ms:3600000}") long fullSyncIntervalMs) {
+        this.eventRepository = eventRepository;
+        this.eventViewsLoader = eventViewsLoader;
+        this.compilationReadModel = compilationReadModel;
+        this.batchSize = batchSize;
+        this.hitsOverlap = Duration.ofMillis(hitsOverlapMs);
+        this.fullSyncInterval = Duration.ofMillis(fullSyncIntervalMs);
+    }
+
+    @Scheduled(initialDelayString = "${ewm.views-sync.interval-ms:60000}",
+            fixedDelayString = "${ewm.views-sync.interval-ms:60000}")
+    public void synchronizeViews() {
+        if (!eventRepository.runWithAdvisoryLock(SYNC_LOCK_KEY, this::synchronizeViewsExclusively)) {
+            syncedUntil = null;
+            log.debug("event views sync: another instance is synchronizing views, skipped");
+        }
+    }
+
+    private void synchronizeViewsExclusively() {
+
+        LocalDateTime syncStartedAt = LocalDateTime.now();
+        boolean fullSync = syncedUntil == null
+                || lastFullSyncAt.plus(fullSyncInterval).isBefore(syncStartedAt);
+        List<Long> updatedEventIds = new ArrayList<>();
+
+        try {
+            if (fullSync) {
+                synchronizeAllPublishedEvents(updatedEventIds);
+                lastFullSyncAt = syncStartedAt;
+            } else {
+                List<Long> hitEventIds = new ArrayList<>(
+                        eventViewsLoader.findHitEventIds(syncedUntil.minus(hitsOverlap), syncStartedAt));
+                for (int from = 0; from < hitEventIds.size(); from += batchSize) {
+                    synchronizeEvents(hitEventIds.subList(from, Math.min(from + batchSize, hitEventIds.size())),
+                            updatedEventIds);
+                }
+            }
+            syncedUntil = syncStartedAt;
+        } catch (RestClientException e) {
+            log.warn("event views sync: stats server is unavailable, synchronized {} events before failure: {}",
+                    updatedEventIds.size(), e.getMessage());
+        }
+
+        if (!updatedEventIds.isEmpty()) {
+            compilationReadModel.invalidateEvents(updatedEventIds);
+            log.info("event views sync: updated views of {} events{}", updatedEventIds.size(),
+                    fullSync ? " in full sync" : "");
+        }
+    }
+
+    private void synchronizeAllPublishedEvents(List<Long> updatedEventIds) {
+
+        long afterId = 0;
+        List<Long> eventIds;
+        do {
+            eventIds = eventRepository.findPublishedEventIds(afterId, PageRequest.of(0, batchSize));
+            if (eventIds.isEmpty()) {
+                break;
+            }
+            synchronizeEvents(eventIds, updatedEventIds);
+            afterId = eventIds.get(eventIds.size() - 1);
+        } while (eventIds.size() == batchSize);
+    }
+
+    private void synchronizeEvents(List<Long> eventIds, List<Long> updatedEventIds) {
+
+        Map<Long, Long> loadedViews = eventViewsLoader.loadViews(eventIds, false);
+        Map<Long, Long> viewsByEventIds = new HashMap<>();
+        for (Long eventId : eventIds) {
+            viewsByEventIds.put(eventId, loadedViews.getOrDefault(eventId, 0L));
+        }
+
+        updatedEventIds.addAll(eventRepository.updateViews(viewsByEventIds));
+    }
+}
@@ -2,6 +2,8 @@ package ru.practicum.explorewithme.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
 import ru.practicum.explorewithme.dao.EventRepository;
 import ru.practicum.explorewithme.dao.RequestForEventRepository;
 import ru.practicum.explorewithme.dao.UserRepository;
@@ -15,14 +17,13 @@ import ru.practicum.explorewithme.exception.IncorrectRequestException;
 import ru.practicum.explorewithme.exception.LimitReachedException;
 import ru.practicum.explorewithme.exception.NotFoundException;
 import ru.practicum.explorewithme.mapper.RequestForEventMapper;
-import ru.practicum.explorewithme.model.ConfirmedRequestsQuantity;
 import ru.practicum.explorewithme.model.Event;
 import ru.practicum.explorewithme.model.RequestForEvent;
 import ru.practicum.explorewithme.model.User;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,16 +32,19 @@ public class RequestForEventService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final RequestForEventMapper requestForEventMapper;
+    private final CompilationReadModel compilationReadModel;
 
     @Autowired
     public RequestForEventService(RequestForEventRepository requestForEventRepository,
                                   UserRepository userRepository,
                                   EventRepository eventRepository,
-                                  RequestForEventMapper requestForEventMapper) {
+                                  RequestForEventMapper requestForEventMapper,
+                                  CompilationReadModel compilationReadModel) {
         this.requestForEventRepository = requestForEventRepository;
         this.userRepository = userRepository;
         this.eventRepository = eventRepository;
         this.requestForEventMapper = requestForEventMapper;
+        this.compilationReadModel = compilationReadModel;
     }
 
     public Collection<RequestForEventResponseDto> getAllRequestsForEventByInitiator(long userId, long eventId) {
@@ -54,14 +58,10 @@ public class RequestForEventService {
                     eventId + " was not found");
         });
 
-        List<RequestForEvent> allRequestsForEvent =
-                requestForEventRepository.findByEventOrderByCreated(eventToRequestIn);
-
-        return allRequestsForEvent.stream()
-                .map(requestForEventMapper::requestForEventToDto)
-                .collect(Collectors.toUnmodifiableList());
+        return requestForEventRepository.findDtosByEventId(eventToRequestIn.getId());
     }
 
+    @Transactional
     public AllTypeRequestsForEventsResponseDto updateStatusOfRequestsForEventByInitiator(
             UpdateStatusOfRequestsForEventDto requestForEventDto, long userId, long eventId) {
 
@@ -79,44 +79,30 @@ public class RequestForEventService {
                     "Pre-moderation of requests is disabled. Confirmation is not required");
         }
 
-        ConfirmedRequestsQuantity confirmedRequestsQuantity =
-                requestForEventRepository.countConfirmedRequestsBySingleEvent(eventToRequestIn);
-        Long counterOfConfirmedRequests =
-                confirmedRequestsQuantity == null ? 0L : confirmedRequestsQuantity.getConfirmedRequests();
+        Long counterOfConfirmedRequests = eventRepository.findConfirmedRequestsForUpdate(eventId);
 
         if (counterOfConfirmedRequests.equals(eventToRequestIn.getParticipantLimit())) {
             throw new LimitReachedException("update status of requests for event: " +
                     "The participant limit has been reached");
         }
 
-        List<RequestForEvent> requestsForEventToUpdate =
-                requestForEventRepository.findAllById(requestForEventDto.getRequestIds());
-
-        List<RequestForEventResponseDto> confirmedRequests = new ArrayList<>();
-        List<RequestForEventResponseDto> rejectedRequests = new ArrayList<>();
-
-        for (RequestForEvent requestForEvent : requestsForEventToUpdate) {
-            if (requestForEvent.getStatus() != RequestForEventStatus.PENDING) {
-                throw new IncorrectRequestException("Request with id= " + requestForEvent.getId() +
-                        " must have status PENDING");
-            }
-
-            if (counterOfConfirmedRequests.equals(eventToRequestIn.getParticipantLimit())) {
-                requestForEvent.setStatus(RequestForEventStatus.CANCELED);
-                rejectedRequests.add(requestForEventMapper.requestForEventToDto(requestForEvent));
-            }
-            if (requestForEventDto.getStatus() == RequestForEventStatus.REJECTED) {
-                requestForEvent.setStatus(RequestForEventStatus.REJECTED);
-                rejectedRequests.add(requestForEventMapper.requestForEventToDto(requestForEvent));
-
-            } else {
-                requestForEvent.setStatus(RequestForEventStatus.CONFIRMED);
-                confirmedRequests.add(requestForEventMapper.requestForEventToDto(requestForEvent));
-
-                counterOfConfirmedRequests++;
-            }
+        requestForEventRepository.findFirstByIdInAndStatusNot(requestForEventDto.getRequestIds(),
+                RequestForEventStatus.PENDING).ifPresent(requestForEvent -> {
+                    throw new IncorrectRequestException("Request with id= " + requestForEvent.getId() +
+                            " must have status PENDING");
+                });
+
+        Map<Boolean, List<RequestForEventResponseDto>> updatedRequestsByConfirmation =
+                requestForEventRepository.updateStatusOfPendingRequests(eventId,
+                                requestForEventDto.getRequestIds(), requestForEventDto.getStatus()).stream()
+                        .collect(Collectors.partitioningBy(
+                                requestForEvent -> requestForEvent.getStatus() == RequestForEventStatus.CONFIRMED));
+
+        List<RequestForEventResponseDto> confirmedRequests = updatedRequestsByConfirmation.get(true);
+        List<RequestForEventResponseDto> rejectedRequests = updatedRequestsByConfirmation.get(false);
+        if (!confirmedRequests.isEmpty()) {
+            compilationReadModel.invalidateEvent(eventId);
         }
-        requestForEventRepository.saveAll(requestsForEventToUpdate);
 
         return AllTypeRequestsForEventsResponseDto.builder()
                 .confirmedRequests(confirmedRequests)
@@ -131,14 +117,10 @@ public class RequestForEventService {
                     userId + " was not found");
         });
 
-        List<RequestForEvent> allRequestsForEvents =
-                requestForEventRepository.findByRequesterOrderByCreatedAsc(requester);
-
-        return allRequestsForEvents.stream()
-                .map(requestForEventMapper::requestForEventToDto)
-                .collect(Collectors.toUnmodifiableList());
+        return requestForEventRepository.findDtosByRequesterId(requester.getId());
     }
 
+    @Transactional
     public RequestForEventResponseDto createRequestForEventByUser(long userId, long eventId) {
 
         User requester = userRepository.findById(userId).orElseThrow(() -> {
@@ -158,13 +140,8 @@ public class RequestForEventService {
                     "It is impossible to participate in an unpublished event");
         }
 
-        ConfirmedRequestsQuantity confirmedRequestsQuantity =
-                requestForEventRepository.countConfirmedRequestsBySingleEvent(eventToRequestIn);
-        Long counterOfConfirmedRequests =
-                confirmedRequestsQuantity == null ? 0L : confirmedRequestsQuantity.getConfirmedRequests();
-
         if (eventToRequestIn.getParticipantLimit() != 0
-                && counterOfConfirmedRequests.equals(eventToRequestIn.getParticipantLimit())) {
+                && eventToRequestIn.getConfirmedRequests() >= eventToRequestIn.getParticipantLimit()) {
             throw new LimitReachedException("create request for event: The participant limit has been reached");
         }
 
@@ -185,9 +162,19 @@ public class RequestForEventService {
             requestForEvent.setStatus(RequestForEventStatus.CONFIRMED);
         }
 
-        return requestForEventMapper.requestForEventToDto(requestForEventRepository.save(requestForEvent));
+        RequestForEvent createdRequestForEvent = requestForEventRepository.save(requestForEvent);
+        if (createdRequestForEvent.getStatus() == RequestForEventStatus.CONFIRMED
+                && eventRepository.admitConfirmedRequests(eventId, 1) == 0) {
+            throw new LimitReachedException("create request for event: The participant limit has been reached");
+        }
+        if (createdRequestForEvent.getStatus() == RequestForEventStatus.CONFIRMED) {
+            compilationReadModel.invalidateEvent(eventId);
+        }
+
+        return requestForEventMapper.requestForEventToDto(createdRequestForEvent);
     }
 
+    @Transactional
     public RequestForEventResponseDto cancelRequestForEventByUser(long userId, long requestId) {
 
         User requester = userRepository.findById(userId).orElseThrow(() -> {
@@ -197,7 +184,18 @@ public class RequestForEventService {
             throw new NotFoundException("cancel request for event: Request with id=" + requestId + " was not found");
         });
 
+        Long eventId = requestForEvent.getEvent().getId();
+        boolean wasConfirmed = requestForEventRepository.cancelConfirmedRequest(requestId) == 1;
+        if (!wasConfirmed && requestForEventRepository.cancelUnconfirmedRequest(requestId) == 0) {
+            wasConfirmed = requestForEventRepository.cancelConfirmedRequest(requestId) == 1;
+        }
+
+        if (wasConfirmed) {
+            eventRepository.addConfirmedRequests(eventId, -1);
+            compilationReadModel.invalidateEvent(eventId);
+        }
+
         requestForEvent.setStatus(RequestForEventStatus.CANCELED);
-        return requestForEventMapper.requestForEventToDto(requestForEventRepository.save(requestForEvent));
+        return requestForEventMapper.requestForEventToDto(requestForEvent);
     }
 }
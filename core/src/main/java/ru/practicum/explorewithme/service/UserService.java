@@ -1,17 +1,20 @@
 package ru.practicum.explorewithme.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
+import ru.practicum.explorewithme.cache.ResponseCache;
 import ru.practicum.explorewithme.dao.UserRepository;
 import ru.practicum.explorewithme.dto.request.UserRequestDto;
 import ru.practicum.explorewithme.dto.response.UserFullInfoResponseDto;
+import ru.practicum.explorewithme.enums.ResponseCacheRegion;
 import ru.practicum.explorewithme.exception.NotFoundException;
 import ru.practicum.explorewithme.mapper.UserMapper;
 import ru.practicum.explorewithme.model.User;
+import ru.practicum.explorewithme.pagination.CursorPage;
+import ru.practicum.explorewithme.pagination.PageCursor;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,21 +22,31 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final ResponseCache responseCache;
+    private final CompilationReadModel compilationReadModel;
 
     @Autowired
-    public UserService(UserRepository userRepository, UserMapper userMapper) {
+    public UserService(UserRepository userRepository,
+                       UserMapper userMapper,
+                       ResponseCache responseCache,
+                       CompilationReadModel compilationReadModel) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.responseCache = responseCache;
+        this.compilationReadModel = compilationReadModel;
     }
 
-    public Collection<UserFullInfoResponseDto> getRequiredUsersByAdmin(List<Long> userIds, int from, int size) {
+    public CursorPage<UserFullInfoResponseDto> getRequiredUsersByAdmin(List<Long> userIds, int from, int size,
+                                                                       String cursor) {
 
-        Pageable pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<User> requiredUsers = userRepository.findRequiredUsers(userIds, pageRequest).getContent();
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Slice<User> requiredUsers = userRepository.findRequiredUsers(userIds, PageCursor.idOf(pageCursor),
+                PageCursor.pageRequest(pageCursor, from, size));
 
-        return requiredUsers.stream()
+        return new CursorPage<>(requiredUsers.stream()
                 .map(userMapper::userToDto)
-                .collect(Collectors.toUnmodifiableList());
+                .collect(Collectors.toUnmodifiableList()),
+                PageCursor.nextCursorOf(requiredUsers, User::getId));
     }
 
     public UserFullInfoResponseDto createUserByAdmin(UserRequestDto userRequestDto) {
@@ -47,5 +60,7 @@ public class UserService {
             throw new NotFoundException("deletion of user: User with id=" + userId + " was not found");
         });
         userRepository.deleteById(userId);
+        responseCache.invalidate(ResponseCacheRegion.COMPILATIONS, ResponseCacheRegion.EVENTS);
+        compilationReadModel.invalidateAll();
     }
 }
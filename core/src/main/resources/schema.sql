@@ -1,5 +1,7 @@
 DROP TABLE IF EXISTS comments, requests_for_events, compilations_events, compilations, categories, events, locations,
-users;
+users, reference_data_versions;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
@@ -13,6 +15,13 @@ CREATE TABLE IF NOT EXISTS locations (
   longitude FLOAT8 NOT NULL
 );
 
+CREATE TABLE IF NOT EXISTS reference_data_versions (
+  name VARCHAR(50) NOT NULL PRIMARY KEY,
+  version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO reference_data_versions (name) VALUES ('categories') ON CONFLICT DO NOTHING;
+
 CREATE TABLE IF NOT EXISTS categories (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
   name VARCHAR(50) NOT NULL UNIQUE
@@ -29,12 +38,26 @@ CREATE TABLE IF NOT EXISTS events (
   location_id BIGINT NOT NULL REFERENCES locations(id) ON DELETE CASCADE ON UPDATE CASCADE,
   paid BOOL NOT NULL,
   participant_limit BIGINT NOT NULL,
+  confirmed_requests BIGINT NOT NULL DEFAULT 0,
   published_on TIMESTAMP,
   request_moderation BOOL NOT NULL,
   state VARCHAR(20) NOT NULL,
-  title VARCHAR(120) NOT NULL
+  title VARCHAR(120) NOT NULL,
+  views BIGINT NOT NULL DEFAULT 0,
+  search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('russian', coalesce(annotation, '')), 'B') ||
+    setweight(to_tsvector('russian', coalesce(description, '')), 'C')) STORED
 );
 
+CREATE INDEX IF NOT EXISTS events_created_at_id_idx ON events (created_at, id);
+CREATE INDEX IF NOT EXISTS events_event_date_id_idx ON events (event_date, id) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS events_views_id_idx ON events (views DESC, id DESC) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS events_search_vector_idx ON events USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS events_title_trgm_idx ON events USING GIN (title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS events_annotation_trgm_idx ON events USING GIN (annotation gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS events_description_trgm_idx ON events USING GIN (description gin_trgm_ops);
+
 CREATE TABLE IF NOT EXISTS compilations (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
   pinned BOOL NOT NULL,
@@ -52,7 +75,8 @@ CREATE TABLE IF NOT EXISTS requests_for_events (
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   event_id BIGINT NOT NULL REFERENCES events(id) ON DELETE CASCADE ON UPDATE CASCADE,
   requester_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE,
-  status VARCHAR(20) NOT NULL
+  status VARCHAR(20) NOT NULL,
+  CONSTRAINT UQ_REQUESTS_FOR_EVENTS_EVENT_REQUESTER UNIQUE (event_id, requester_id)
 );
 
 CREATE TABLE IF NOT EXISTS comments (
@@ -64,3 +88,5 @@ CREATE TABLE IF NOT EXISTS comments (
   edited_at TIMESTAMP,
   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
+
+CREATE INDEX IF NOT EXISTS comments_event_id_id_idx ON comments (event_id, id);
@@ -0,0 +1,65 @@
+package ru.practicum.explorewithme;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class Benchmark {
+    public static final int RUNS = 5;
+    private static final Set<Class<?>> LOADED_BENCHMARKS = ConcurrentHashMap.newKeySet();
+
+    private Benchmark() {
+    }
+
+    public static void loadOnce(Class<?> benchmark, Runnable load) {
+
+        if (LOADED_BENCHMARKS.contains(benchmark)) {
+            return;
+        }
+        load.run();
+        LOADED_BENCHMARKS.add(benchmark);
+    }
+
+    public static <T> Measurement<T> measure(Supplier<T> action) {
+
+        T result = action.get();
+        double[] elapsedMs = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long startedAt = System.nanoTime();
+            action.get();
+            elapsedMs[run] = elapsedMsSince(startedAt);
+        }
+        Arrays.sort(elapsedMs);
+        return new Measurement<>(result, elapsedMs[RUNS / 2]);
+    }
+
+    public static <T> T medianRun(IntFunction<T> run, ToDoubleFunction<T> elapsedMs) {
+
+        List<T> runs = IntStream.range(0, RUNS)
+                .mapToObj(run)
+                .sorted(Comparator.comparingDouble(elapsedMs))
+                .collect(Collectors.toList());
+        return runs.get(RUNS / 2);
+    }
+
+    public static double elapsedMsSince(long startedAt) {
+        return Math.round((System.nanoTime() - startedAt) / 1_000.0) / 1_000.0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Measurement<T> {
+        private final T result;
+        private final double medianMs;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.explorewithme;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+@TestConfiguration
+public class StatementCounter implements BeanPostProcessor {
+    private final AtomicLong statements = new AtomicLong();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create((DataSource) bean)
+                    .name(beanName)
+                    .afterQuery((execution, queries) -> statements.addAndGet(queries.size()))
+                    .build();
+        }
+        return bean;
+    }
+
+    public long count(Callable<?> action) throws Exception {
+
+        long before = statements.get();
+        action.call();
+        return statements.get() - before;
+    }
+}
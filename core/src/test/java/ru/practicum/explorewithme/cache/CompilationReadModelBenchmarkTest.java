@@ -0,0 +1,152 @@
+package ru.practicum.explorewithme.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.Benchmark.Measurement;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.StatementCounter;
+import ru.practicum.explorewithme.dao.CompilationRepository;
+import ru.practicum.explorewithme.dao.EventRepository;
+import ru.practicum.explorewithme.dto.response.CompilationResponseDto;
+import ru.practicum.explorewithme.mapper.CompilationMapper;
+import ru.practicum.explorewithme.mapper.EventMapper;
+import ru.practicum.explorewithme.service.EventViewsCache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@Tag("benchmark")
+class CompilationReadModelBenchmarkTest extends PostgresIntegrationTest {
+    private static final int COMPILATIONS = Integer.getInteger("benchmark.compilations", 500);
+    private static final int EVENTS_PER_COMPILATION = 20;
+    private static final int EVENTS = 5_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int WARM_UP_RUNS = 20;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private CompilationMapper compilationMapper;
+    @Autowired
+    private EventMapper eventMapper;
+    @Autowired
+    private CategoryCache categoryCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private static long pinnedCompilationId;
+
+    @BeforeEach
+    void createCompilations() {
+        Benchmark.loadOnce(getClass(), this::loadCompilations);
+    }
+
+    private void loadCompilations() {
+
+        long startedAt = System.nanoTime();
+        Long initiatorId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Organizer') " +
+                "RETURNING id", Long.class, UUID.randomUUID() + "@example.com");
+        Long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 30));
+        Long locationId = jdbcTemplate.queryForObject(
+                "INSERT INTO locations (latitude, longitude) VALUES (55.75, 37.62) RETURNING id", Long.class);
+        Long firstEventId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM events", Long.class);
+
+        jdbcTemplate.update("INSERT INTO events (annotation, category_id, description, event_date, initiator_id, " +
+                        "location_id, paid, participant_limit, published_on, request_moderation, state, title) " +
+                        "SELECT 'Compiled event annotation', ?, 'Compiled event', " +
+                        "NOW() + INTERVAL '1 day' + g * INTERVAL '1 minute', ?, ?, false, 0, NOW(), false, " +
+                        "'PUBLISHED', 'Compiled event' " +
+                        "FROM generate_series(1, ?) AS g",
+                categoryId, initiatorId, locationId, EVENTS);
+        Long firstCompilationId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) + 1 FROM compilations", Long.class);
+        jdbcTemplate.update("INSERT INTO compilations (pinned, title) " +
+                "SELECT g % 10 = 0, 'Compilation ' || g FROM generate_series(1, ?) AS g", COMPILATIONS);
+        jdbcTemplate.update("INSERT INTO compilations_events (compilation_id, event_id) " +
+                        "SELECT c.id, e.id FROM compilations AS c " +
+                        "JOIN events AS e ON e.id BETWEEN ? AND ? " +
+                        "AND (e.id - ?) % ? = (c.id * 7) % ? " +
+                        "WHERE c.id >= ?",
+                firstEventId, firstEventId + EVENTS - 1, firstEventId, EVENTS / EVENTS_PER_COMPILATION,
+                EVENTS / EVENTS_PER_COMPILATION, firstCompilationId);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        categoryCache.load();
+        pinnedCompilationId = firstCompilationId + 9;
+
+        log.info("compilations benchmark: loaded {} compilations of {} events in {} ms", COMPILATIONS,
+                EVENTS_PER_COMPILATION, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @Test
+    void servesCompilationPagesFromAssembledCache() throws Exception {
+
+        CompilationReadModel uncached = createReadModel(0);
+        CompilationReadModel cached = createReadModel(60_000);
+
+        Map<String, Function<CompilationReadModel, Object>> pages = new LinkedHashMap<>();
+        pages.put("all, first page",
+                readModel -> readModel.getCompilations(null, 0, PAGE_SIZE, null).getContent());
+        pages.put("pinned, first page",
+                readModel -> readModel.getCompilations(true, 0, PAGE_SIZE, null).getContent());
+        pages.put("all, deep page",
+                readModel -> readModel.getCompilations(null, COMPILATIONS - PAGE_SIZE, PAGE_SIZE, null).getContent());
+        pages.put("single compilation", readModel -> readModel.findCompilationById(pinnedCompilationId));
+
+        for (int run = 0; run < WARM_UP_RUNS; run++) {
+            pages.values().forEach(page -> page.apply(uncached));
+        }
+        for (Map.Entry<String, Function<CompilationReadModel, Object>> page : pages.entrySet()) {
+            Measurement<Object> assembled = Benchmark.measure(() -> page.getValue().apply(uncached));
+            Measurement<Object> fromCache = Benchmark.measure(() -> page.getValue().apply(cached));
+            long assembledStatements = statementCounter.count(() -> page.getValue().apply(uncached));
+            long cachedStatements = statementCounter.count(() -> page.getValue().apply(cached));
+            log.info("compilations benchmark, {} compilations of {} events, {}: {} ms and {} statements assembled, " +
+                            "{} ms and {} statements from cache",
+                    COMPILATIONS, EVENTS_PER_COMPILATION, page.getKey(), assembled.getMedianMs(), assembledStatements,
+                    fromCache.getMedianMs(), cachedStatements);
+            assertEquals(assembled.getResult(), fromCache.getResult(), page.getKey());
+            assertEquals(0, cachedStatements, page.getKey());
+        }
+
+        CompilationResponseDto pinned = cached.findCompilationById(pinnedCompilationId).orElseThrow();
+        cached.invalidateEvent(pinned.getEvents().iterator().next().getId());
+        assertTrue(statementCounter.count(() -> cached.findCompilationById(pinnedCompilationId)) > 0);
+        assertEquals(0, statementCounter.count(() -> cached.findCompilationById(pinnedCompilationId)));
+        assertEquals(EVENTS_PER_COMPILATION, pinned.getEvents().size());
+    }
+
+    private CompilationReadModel createReadModel(long ttlMs) {
+
+        EventViewsCache eventViewsCache = mock(EventViewsCache.class);
+        when(eventViewsCache.getViews(anyCollection(), anyBoolean())).thenAnswer(invocation -> {
+            Collection<Long> eventIds = invocation.getArgument(0);
+            return eventIds.stream().collect(Collectors.toMap(eventId -> eventId, eventId -> eventId % 100));
+        });
+        return new CompilationReadModel(compilationRepository, eventRepository, compilationMapper, eventMapper,
+                categoryCache, eventViewsCache, new SimpleMeterRegistry(), ttlMs, 200);
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.explorewithme.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.StatementCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Slf4j
+class ListingStatementCountTest extends PostgresIntegrationTest {
+    private static final int FEW = 2;
+    private static final int MANY = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long categoryId;
+    private long initiatorId;
+    private List<Long> eventIds;
+    private List<Long> requesterIds;
+    private long largeCompilationId;
+    private long smallCompilationId;
+
+    @BeforeEach
+    void createListings() {
+
+        categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 30));
+        initiatorId = createUsers(1).get(0);
+        eventIds = new ArrayList<>();
+        for (int i = 1; i <= MANY; i++) {
+            eventIds.add(createPublishedEvent(i));
+        }
+
+        requesterIds = createUsers(MANY);
+        for (Long eventId : eventIds) {
+            createRequest(eventId, requesterIds.get(0));
+        }
+        for (Long requesterId : requesterIds.subList(1, MANY)) {
+            createRequest(eventIds.get(0), requesterId);
+        }
+        createRequest(eventIds.get(1), requesterIds.get(1));
+
+        for (Long authorId : requesterIds) {
+            jdbcTemplate.update("INSERT INTO comments (text, event_id, author_id) VALUES ('Listed comment', ?, ?)",
+                    eventIds.get(0), authorId);
+        }
+
+        jdbcTemplate.update("DELETE FROM compilations");
+        for (int i = 0; i < MANY; i++) {
+            long compilationId = createCompilation(i == 0 ? eventIds : eventIds.subList(0, FEW));
+            if (i == 0) {
+                largeCompilationId = compilationId;
+            } else if (i == 1) {
+                smallCompilationId = compilationId;
+            }
+        }
+    }
+
+    @Test
+    void listsPublishedEventsWithConstantNumberOfStatements() throws Exception {
+        assertConstantStatements("public events",
+                "/events?categories=" + categoryId + "&size=" + FEW,
+                "/events?categories=" + categoryId + "&size=" + MANY);
+    }
+
+    @Test
+    void listsEventsForAdminWithConstantNumberOfStatements() throws Exception {
+        assertConstantStatements("admin events",
+                "/admin/events?users=" + initiatorId + "&size=" + FEW,
+                "/admin/events?users=" + initiatorId + "&size=" + MANY);
+    }
+
+    @Test
+    void listsEventsOfInitiatorWithConstantNumberOfStatements() throws Exception {
+        assertConstantStatements("initiator events",
+                "/users/" + initiatorId + "/events?size=" + FEW,
+                "/users/" + initiatorId + "/events?size=" + MANY);
+    }
+
+    @Test
+    void listsCommentsWithConstantNumberOfStatements() throws Exception {
+        assertConstantStatements("event comments",
+                "/events/" + eventIds.get(0) + "/comments?size=" + FEW,
+                "/events/" + eventIds.get(0) + "/comments?size=" + MANY);
+        assertConstantStatements("admin comments",
+                "/admin/comments?events=" + eventIds.get(0) + "&size=" + FEW,
+                "/admin/comments?events=" + eventIds.get(0) + "&size=" + MANY);
+    }
+
+    @Test
+    void listsRequestsWithConstantNumberOfStatements() throws Exception {
+        assertConstantStatements("requests for event",
+                "/users/" + initiatorId + "/events/" + eventIds.get(1) + "/requests",
+                "/users/" + initiatorId + "/events/" + eventIds.get(0) + "/requests");
+        assertConstantStatements("requests of user",
+                "/users/" + requesterIds.get(1) + "/requests",
+                "/users/" + requesterIds.get(0) + "/requests");
+    }
+
+    @Test
+    void listsCompilationsWithConstantNumberOfStatements() throws Exception {
+        assertConstantStatements("compilations",
+                "/compilations?size=" + FEW,
+                "/compilations?size=" + MANY);
+        assertConstantStatements("compilation",
+                "/compilations/" + smallCompilationId,
+                "/compilations/" + largeCompilationId);
+    }
+
+    private void assertConstantStatements(String listing, String fewUrl, String manyUrl) throws Exception {
+
+        long fewStatements = statementCounter.count(() -> mockMvc.perform(get(fewUrl))
+                .andExpect(status().isOk()));
+        long manyStatements = statementCounter.count(() -> mockMvc.perform(get(manyUrl))
+                .andExpect(status().isOk()));
+
+        log.info("{}: {} statements for {} items, {} statements for {} items",
+                listing, fewStatements, FEW, manyStatements, MANY);
+        assertEquals(fewStatements, manyStatements, listing + " issues a statement per listed item");
+    }
+
+    private List<Long> createUsers(int count) {
+        String prefix = UUID.randomUUID().toString();
+        return jdbcTemplate.queryForList("INSERT INTO users (email, name) " +
+                        "SELECT ? || '-' || g || '@example.com', 'user ' || g FROM generate_series(1, ?) AS g " +
+                        "RETURNING id",
+                Long.class, prefix, count);
+    }
+
+    private long createPublishedEvent(int daysAhead) {
+
+        Long locationId = jdbcTemplate.queryForObject(
+                "INSERT INTO locations (latitude, longitude) VALUES (55.75, 37.62) RETURNING id", Long.class);
+        return jdbcTemplate.queryForObject("INSERT INTO events (annotation, category_id, description, event_date, " +
+                        "initiator_id, location_id, paid, participant_limit, published_on, request_moderation, " +
+                        "state, title) " +
+                        "VALUES ('Listed event annotation', ?, 'Listed event', NOW() + ? * INTERVAL '1 day', ?, ?, " +
+                        "false, 0, NOW(), true, 'PUBLISHED', 'Listed event') " +
+                        "RETURNING id",
+                Long.class, categoryId, daysAhead, initiatorId, locationId);
+    }
+
+    private void createRequest(long eventId, long requesterId) {
+        jdbcTemplate.update("INSERT INTO requests_for_events (event_id, requester_id, status) VALUES (?, ?, 'PENDING')",
+                eventId, requesterId);
+    }
+
+    private long createCompilation(List<Long> compiledEventIds) {
+
+        Long compilationId = jdbcTemplate.queryForObject(
+                "INSERT INTO compilations (pinned, title) VALUES (true, 'Listed compilation') RETURNING id",
+                Long.class);
+        jdbcTemplate.update("INSERT INTO compilations_events (compilation_id, event_id) " +
+                        "SELECT ?, event_id FROM UNNEST(?::BIGINT[]) AS event_id",
+                compilationId, compiledEventIds.toArray(new Long[0]));
+        return compilationId;
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.explorewithme.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.Benchmark.Measurement;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.model.Event;
+import ru.practicum.explorewithme.pagination.PageCursor;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+class EventPaginationBenchmarkTest extends PostgresIntegrationTest {
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 20_000);
+    private static final int WALKED_EVENTS_LIMIT = 50_000;
+    private static final int PAGE_SIZE = 20;
+    private static final double[] DEPTHS = {0, 0.01, 0.1, 0.5, 0.9};
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createEvents() {
+        Benchmark.loadOnce(getClass(), this::loadEvents);
+    }
+
+    private void loadEvents() {
+
+        long startedAt = System.nanoTime();
+        Long initiatorId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Organizer') " +
+                "RETURNING id", Long.class, UUID.randomUUID() + "@example.com");
+        Long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 30));
+        Long locationId = jdbcTemplate.queryForObject(
+                "INSERT INTO locations (latitude, longitude) VALUES (55.75, 37.62) RETURNING id", Long.class);
+
+        jdbcTemplate.update("INSERT INTO events (annotation, category_id, description, event_date, initiator_id, " +
+                        "location_id, paid, participant_limit, published_on, request_moderation, state, title, views) " +
+                        "SELECT 'Paged event annotation', ?, 'Paged event', " +
+                        "DATE_TRUNC('minute', NOW()) + INTERVAL '1 day' + (g / 3) * INTERVAL '1 minute', ?, ?, " +
+                        "false, 0, NOW(), false, 'PUBLISHED', 'Paged event', (g::BIGINT * 7919) % 1000 " +
+                        "FROM generate_series(1, ?) AS g",
+                categoryId, initiatorId, locationId, EVENTS);
+        jdbcTemplate.execute("VACUUM ANALYZE events");
+
+        log.info("event pagination benchmark: loaded {} events in {} ms",
+                EVENTS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @Test
+    void readsSamePagesByEventDateWithOffsetAndCursor() {
+
+        List<Map<String, Object>> orderedEvents = jdbcTemplate.queryForList("SELECT id, event_date FROM events " +
+                "WHERE state = 'PUBLISHED' AND event_date > CURRENT_TIMESTAMP ORDER BY event_date, id");
+
+        if (orderedEvents.size() <= WALKED_EVENTS_LIMIT) {
+            assertEquals(idsOf(orderedEvents), walkWithCursor(cursor ->
+                    eventRepository.findAllPublishedEventsByParameters(null, null, false, null, null,
+                            PageCursor.dateTimeSortKeyOf(cursor), PageCursor.idOf(cursor),
+                            PageRequest.of(0, PAGE_SIZE)), Event::getEventDate));
+        }
+
+        compareOffsetAndCursorPages("event date", orderedEvents,
+                pageable -> eventRepository.findAllPublishedEventsByParameters(null, null, false, null, null,
+                        null, null, pageable),
+                previous -> eventRepository.findAllPublishedEventsByParameters(null, null, false, null, null,
+                        ((Timestamp) previous.get("event_date")).toLocalDateTime(),
+                        (Long) previous.get("id"), PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void readsSamePagesByViewsWithOffsetAndCursor() {
+
+        List<Map<String, Object>> orderedEvents = jdbcTemplate.queryForList("SELECT id, views FROM events " +
+                "WHERE state = 'PUBLISHED' AND event_date > CURRENT_TIMESTAMP ORDER BY views DESC, id DESC");
+
+        if (orderedEvents.size() <= WALKED_EVENTS_LIMIT) {
+            assertEquals(idsOf(orderedEvents), walkWithCursor(cursor ->
+                    eventRepository.findMostViewedPublishedEventsByParameters(null, null, false, null, null,
+                            PageCursor.numericSortKeyOf(cursor), PageCursor.idOf(cursor),
+                            PageRequest.of(0, PAGE_SIZE)), Event::getViews));
+        }
+
+        compareOffsetAndCursorPages("views", orderedEvents,
+                pageable -> eventRepository.findMostViewedPublishedEventsByParameters(null, null, false, null, null,
+                        null, null, pageable),
+                previous -> eventRepository.findMostViewedPublishedEventsByParameters(null, null, false, null, null,
+                        (Long) previous.get("views"), (Long) previous.get("id"), PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    private void compareOffsetAndCursorPages(String ordering, List<Map<String, Object>> orderedEvents,
+                                             Function<PageRequest, Slice<Event>> offsetPage,
+                                             Function<Map<String, Object>, Slice<Event>> cursorPage) {
+
+        for (double depth : DEPTHS) {
+            int pageNumber = (int) (orderedEvents.size() * depth) / PAGE_SIZE;
+            int offset = pageNumber * PAGE_SIZE;
+
+            Measurement<List<Long>> byOffset = Benchmark.measure(() ->
+                    idsOf(offsetPage.apply(PageRequest.of(pageNumber, PAGE_SIZE))));
+            Measurement<List<Long>> byCursor = offset == 0
+                    ? byOffset
+                    : Benchmark.measure(() -> idsOf(cursorPage.apply(orderedEvents.get(offset - 1))));
+
+            log.info("event pagination benchmark, {} events by {}, page at offset {}: {} ms with offset, " +
+                            "{} ms with cursor",
+                    orderedEvents.size(), ordering, offset, byOffset.getMedianMs(), byCursor.getMedianMs());
+            assertEquals(idsOf(orderedEvents.subList(offset, Math.min(orderedEvents.size(), offset + PAGE_SIZE))),
+                    byOffset.getResult());
+            assertEquals(byOffset.getResult(), byCursor.getResult());
+        }
+    }
+
+    private static List<Long> walkWithCursor(Function<PageCursor, Slice<Event>> page,
+                                             Function<Event, Object> sortKey) {
+
+        List<Long> walkedIds = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            Slice<Event> events = page.apply(cursor);
+            events.forEach(event -> walkedIds.add(event.getId()));
+            cursor = PageCursor.decode(PageCursor.nextCursorOf(events, sortKey, Event::getId));
+        } while (cursor != null);
+        return walkedIds;
+    }
+
+    private static List<Long> idsOf(List<Map<String, Object>> events) {
+        return events.stream()
+                .map(event -> (Long) event.get("id"))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> idsOf(Slice<Event> events) {
+        return events.map(Event::getId).getContent();
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.explorewithme.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.Benchmark.Measurement;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.enums.EventsSortType;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+class EventSearchBenchmarkTest extends PostgresIntegrationTest {
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 10_000);
+    private static final int NEEDLE_EVERY = 1000;
+    private static final int PAGE_SIZE = 10;
+    private static final String[] WORDS = {
+            "концерт", "выставка", "спектакль", "фестиваль", "лекция", "мастер-класс", "экскурсия", "премьера",
+            "музыка", "театр", "кино", "живопись", "фотография", "танцы", "джаз", "рок", "классика", "опера",
+            "город", "парк", "набережная", "площадь", "музей", "галерея", "клуб", "сцена", "вечер", "утро",
+            "дети", "семья", "друзья", "бесплатно", "билеты", "программа", "участники", "гости", "встреча",
+            "concert", "exhibition", "festival", "lecture", "workshop", "music", "theatre", "cinema", "jazz",
+            "gallery", "museum", "family", "friends", "tickets", "program", "guests", "evening", "stage"};
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createEvents() {
+        Benchmark.loadOnce(getClass(), this::loadEvents);
+    }
+
+    private void loadEvents() {
+
+        long startedAt = System.nanoTime();
+        Long initiatorId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Organizer') " +
+                "RETURNING id", Long.class, UUID.randomUUID() + "@example.com");
+        Long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 30));
+        Long locationId = jdbcTemplate.queryForObject(
+                "INSERT INTO locations (latitude, longitude) VALUES (55.75, 37.62) RETURNING id", Long.class);
+
+        jdbcTemplate.update("INSERT INTO events (annotation, category_id, description, event_date, initiator_id, " +
+                        "location_id, paid, participant_limit, published_on, request_moderation, state, title) " +
+                        "SELECT " + randomWords(12) + " || CASE WHEN g % ? = 0 THEN ' мотокросс' ELSE '' END, ?, " +
+                        randomWords(40) + ", NOW() + INTERVAL '1 day' + g * INTERVAL '1 minute', ?, ?, false, 0, " +
+                        "NOW(), false, 'PUBLISHED', " + randomWords(4) + " " +
+                        "FROM generate_series(1, ?) AS g " +
+                        "CROSS JOIN (SELECT ?::TEXT[] AS words) AS vocabulary",
+                NEEDLE_EVERY, categoryId, initiatorId, locationId, EVENTS, WORDS);
+        jdbcTemplate.execute("VACUUM ANALYZE events");
+
+        log.info("event search benchmark: loaded {} events in {} ms",
+                EVENTS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @Test
+    void searchesPublishedEventsWithTextIndexesAndLikeScans() {
+
+        measure("common word", "концерт", EventsSortType.EVENT_DATE);
+        measure("common word stemmed", "концерты", EventsSortType.EVENT_DATE);
+        measure("common word by relevance", "концерт", EventsSortType.RELEVANCE);
+        measure("two words", "джаз вечер", EventsSortType.EVENT_DATE);
+        measure("rare word", "мотокросс", EventsSortType.EVENT_DATE);
+        measure("rare substring", "отокрос", EventsSortType.EVENT_DATE);
+        measure("missing word", "дирижабль", EventsSortType.EVENT_DATE);
+
+        List<Long> foundNeedles = search("мотокросс", EventsSortType.EVENT_DATE, EVENTS);
+        assertEquals(EVENTS / NEEDLE_EVERY, foundNeedles.size());
+        assertEquals(new HashSet<>(searchWithLike("мотокросс", EVENTS)), new HashSet<>(foundNeedles));
+        assertEquals(foundNeedles, search("отокрос", EventsSortType.EVENT_DATE, EVENTS));
+        assertTrue(search("концерты", EventsSortType.EVENT_DATE, EVENTS)
+                .containsAll(searchWithLike("концерт", EVENTS)));
+    }
+
+    private static String randomWords(int count) {
+        return "(SELECT string_agg(word, ' ') FROM (" +
+                "SELECT words[1 + FLOOR(random() * array_length(words, 1))::INT] AS word " +
+                "FROM generate_series(1, " + count + " + g * 0)) AS picked)";
+    }
+
+    private void measure(String name, String searchText, EventsSortType sortType) {
+
+        Measurement<List<Long>> indexed = Benchmark.measure(() -> search(searchText, sortType, PAGE_SIZE));
+        Measurement<List<Long>> like = Benchmark.measure(() -> searchWithLike(searchText, PAGE_SIZE));
+        log.info("event search benchmark, {} events, {} '{}' by {}: {} ms with text indexes ({} ids), " +
+                        "{} ms with LIKE scan ({} ids)",
+                EVENTS, name, searchText, sortType, indexed.getMedianMs(), indexed.getResult().size(),
+                like.getMedianMs(), like.getResult().size());
+    }
+
+    private List<Long> search(String searchText, EventsSortType sortType, int limit) {
+        return eventRepository.searchPublishedEventIds(searchText, null, null, false, null, null,
+                sortType, null, 0, limit);
+    }
+
+    private List<Long> searchWithLike(String searchText, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM events " +
+                        "WHERE (UPPER(annotation) LIKE UPPER(?) OR UPPER(description) LIKE UPPER(?)) " +
+                        "AND event_date > CURRENT_TIMESTAMP AND state = 'PUBLISHED' " +
+                        "ORDER BY event_date ASC LIMIT ?",
+                Long.class, "%" + searchText + "%", "%" + searchText + "%", limit);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.Benchmark.Measurement;
+import ru.practicum.explorewithme.cache.CategoryCache;
+import ru.practicum.explorewithme.dao.CommentRepository;
+import ru.practicum.explorewithme.dto.response.CategoryResponseDto;
+import ru.practicum.explorewithme.dto.response.EventResponseDto;
+import ru.practicum.explorewithme.mapper.CommentMapperImpl;
+import ru.practicum.explorewithme.mapper.EventMapper;
+import ru.practicum.explorewithme.mapper.EventMapperImpl;
+import ru.practicum.explorewithme.model.Category;
+import ru.practicum.explorewithme.model.Comment;
+import ru.practicum.explorewithme.model.Event;
+import ru.practicum.explorewithme.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@Tag("benchmark")
+class EventDtoEnricherBenchmarkTest {
+    private static final int[] PAGE_SIZES = {50, 200, 800};
+    private static final int[] COMMENTS_PER_EVENT = {2, 8, 32};
+    private static final int BASE_PAGE_SIZE = 50;
+    private static final int BASE_COMMENTS_PER_EVENT = 2;
+    private static final int WARM_UP_RUNS = 200;
+    private static final double MAX_SUPERLINEAR_GROWTH = 2;
+
+    private final User organizer = User.builder().id(1L).name("Organizer").email("organizer@example.com").build();
+    private final User guest = User.builder().id(2L).name("Guest").email("guest@example.com").build();
+    private final Category category = Category.builder().id(1L).name("Concerts").build();
+
+    private List<Comment> pageComments;
+    private EventMapper eventMapper;
+    private EventDtoEnricher eventDtoEnricher;
+
+    @BeforeEach
+    void createEnricher() {
+
+        CategoryCache categoryCache = mock(CategoryCache.class);
+        when(categoryCache.categoryToDto(any())).thenReturn(new CategoryResponseDto(1L, "Concerts"));
+        EventViewsCache eventViewsCache = mock(EventViewsCache.class);
+        when(eventViewsCache.getViews(anyCollection(), anyBoolean())).thenAnswer(invocation -> {
+            Collection<Long> eventIds = invocation.getArgument(0);
+            return eventIds.stream().collect(Collectors.toMap(Function.identity(), eventId -> eventId % 100));
+        });
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        when(commentRepository.findByEventInOrderByCreatedAsc(anyCollection()))
+                .thenAnswer(invocation -> pageComments);
+        eventMapper = new EventMapperImpl(categoryCache);
+        eventDtoEnricher = new EventDtoEnricher(eventViewsCache, commentRepository, new CommentMapperImpl(categoryCache),
+                new SimpleMeterRegistry(), 8, 200, 4, 100, 1000, 5000, "all", 3);
+    }
+
+    @AfterEach
+    void stopEnricher() {
+        eventDtoEnricher.stop();
+    }
+
+    @Test
+    void enrichesPagesInTimeLinearInEventsAndComments() {
+
+        List<Event> warmUpPage = pageOf(PAGE_SIZES[PAGE_SIZES.length - 1], BASE_COMMENTS_PER_EVENT);
+        for (int run = 0; run < WARM_UP_RUNS; run++) {
+            enrich(warmUpPage);
+        }
+
+        double baseMs = measureEnrichment(BASE_PAGE_SIZE, BASE_COMMENTS_PER_EVENT);
+        for (int pageSize : PAGE_SIZES) {
+            double growth = (double) pageSize / BASE_PAGE_SIZE;
+            assertTrue(measureEnrichment(pageSize, BASE_COMMENTS_PER_EVENT) < baseMs * growth * MAX_SUPERLINEAR_GROWTH,
+                    "page of " + pageSize + " events");
+        }
+        for (int commentsPerEvent : COMMENTS_PER_EVENT) {
+            double growth = (double) commentsPerEvent / BASE_COMMENTS_PER_EVENT;
+            assertTrue(measureEnrichment(BASE_PAGE_SIZE, commentsPerEvent) < baseMs * growth * MAX_SUPERLINEAR_GROWTH,
+                    commentsPerEvent + " comments per event");
+        }
+    }
+
+    private double measureEnrichment(int pageSize, int commentsPerEvent) {
+
+        List<Event> page = pageOf(pageSize, commentsPerEvent);
+        Measurement<List<EventResponseDto>> enrichment = Benchmark.measure(() -> enrich(page));
+
+        log.info("enrichment benchmark, {} events with {} comments each: {} ms",
+                pageSize, commentsPerEvent, enrichment.getMedianMs());
+        assertEquals(pageSize, enrichment.getResult().size());
+        enrichment.getResult().forEach(eventResponseDto ->
+                assertEquals(commentsPerEvent, eventResponseDto.getCommentsCount()));
+        return enrichment.getMedianMs();
+    }
+
+    private List<EventResponseDto> enrich(List<Event> page) {
+        return eventDtoEnricher.mapAndEnrich(page, eventMapper::eventToShortDto, false);
+    }
+
+    private List<Event> pageOf(int pageSize, int commentsPerEvent) {
+
+        LocalDateTime eventDate = LocalDateTime.of(2026, 12, 1, 19, 0);
+        List<Event> page = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(eventId -> Event.builder()
+                        .id(eventId)
+                        .annotation("Enriched event annotation")
+                        .category(category)
+                        .eventDate(eventDate.plusHours(eventId))
+                        .initiator(organizer)
+                        .paid(false)
+                        .title("Enriched event " + eventId)
+                        .views(0L)
+                        .build())
+                .collect(Collectors.toList());
+
+        List<Comment> comments = new ArrayList<>();
+        for (int commentNumber = 0; commentNumber < commentsPerEvent; commentNumber++) {
+            for (Event event : page) {
+                comments.add(Comment.builder()
+                        .id((long) comments.size() + 1)
+                        .text("Comment " + commentNumber)
+                        .event(event)
+                        .author(commentNumber % 2 == 0 ? guest : organizer)
+                        .isEdited(false)
+                        .created(eventDate.minusDays(1).plusMinutes(comments.size()))
+                        .build());
+            }
+        }
+        pageComments = comments;
+        return page;
+    }
+}
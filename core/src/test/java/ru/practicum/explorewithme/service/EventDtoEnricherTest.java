@@ -0,0 +1,54 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.explorewithme.cache.CategoryCache;
+import ru.practicum.explorewithme.dao.CommentRepository;
+import ru.practicum.explorewithme.dto.response.EventResponseDto;
+import ru.practicum.explorewithme.mapper.CommentMapperImpl;
+import ru.practicum.explorewithme.mapper.EventMapper;
+import ru.practicum.explorewithme.mapper.EventMapperImpl;
+import ru.practicum.explorewithme.model.Event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventDtoEnricherTest {
+
+    @Test
+    void degradesViewsWithoutStarvingCommentsWhenStatsHang() {
+
+        CountDownLatch statsServerHangs = new CountDownLatch(1);
+        EventViewsCache eventViewsCache = mock(EventViewsCache.class);
+        when(eventViewsCache.getViews(anyCollection(), anyBoolean())).thenAnswer(invocation -> {
+            statsServerHangs.await();
+            return Map.of();
+        });
+        when(eventViewsCache.getLastKnownViews(anyCollection(), anyBoolean())).thenReturn(Map.of(1L, 7L));
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        when(commentRepository.findByEventInOrderByCreatedAsc(anyCollection())).thenReturn(List.of());
+        CategoryCache categoryCache = mock(CategoryCache.class);
+        EventMapper eventMapper = new EventMapperImpl(categoryCache);
+
+        EventDtoEnricher eventDtoEnricher = new EventDtoEnricher(eventViewsCache, commentRepository,
+                new CommentMapperImpl(categoryCache), new SimpleMeterRegistry(), 1, 1, 1, 1, 50, 5000, "all", 3);
+        try {
+            for (int listing = 0; listing < 5; listing++) {
+                List<EventResponseDto> events = eventDtoEnricher.mapAndEnrich(
+                        List.of(Event.builder().id(1L).views(3L).build()), eventMapper::eventToShortDto, false);
+                assertEquals(7L, events.get(0).getViews());
+                assertEquals(0L, events.get(0).getCommentsCount());
+            }
+        } finally {
+            statsServerHangs.countDown();
+            eventDtoEnricher.stop();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.explorewithme.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.StatementCounter;
+import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.cache.CompilationReadModel;
+import ru.practicum.explorewithme.client.StatsClient;
+import ru.practicum.explorewithme.dao.EventRepository;
+import ru.practicum.explorewithme.mapper.EventMapper;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@Tag("benchmark")
+class EventViewsSynchronizerBenchmarkTest extends PostgresIntegrationTest {
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 20_000);
+    private static final int HIT_EVENTS = 50;
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private EventMapper eventMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private final Map<Long, Long> viewsOfEvents = new ConcurrentHashMap<>();
+    private final Set<Long> hitEventIds = ConcurrentHashMap.newKeySet();
+    private StatsClient statsClient;
+    private CompilationReadModel compilationReadModel;
+
+    @BeforeEach
+    void createEvents() {
+
+        statsClient = mock(StatsClient.class);
+        compilationReadModel = mock(CompilationReadModel.class);
+        when(statsClient.getStats(anyString(), anyString(), any(), anyBoolean())).thenAnswer(invocation -> {
+            List<String> uris = invocation.getArgument(2);
+            if (uris == null) {
+                List<StatsResponseDto> hits = hitEventIds.stream()
+                        .map(eventId -> new StatsResponseDto("ewm-main-service", "/events/" + eventId, 1L))
+                        .collect(Collectors.toList());
+                hits.add(new StatsResponseDto("ewm-main-service", "/events", 1L));
+                return hits;
+            }
+            return uris.stream()
+                    .map(uri -> new StatsResponseDto("ewm-main-service", uri,
+                            viewsOfEvents.get(eventMapper.mapUriToEventId(uri))))
+                    .collect(Collectors.toList());
+        });
+
+        Benchmark.loadOnce(getClass(), this::loadEvents);
+    }
+
+    private void loadEvents() {
+
+        long startedAt = System.nanoTime();
+        Long initiatorId = jdbcTemplate.queryForObject("INSERT INTO users (email, name) VALUES (?, 'Organizer') " +
+                "RETURNING id", Long.class, UUID.randomUUID() + "@example.com");
+        Long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 30));
+        Long locationId = jdbcTemplate.queryForObject(
+                "INSERT INTO locations (latitude, longitude) VALUES (55.75, 37.62) RETURNING id", Long.class);
+
+        jdbcTemplate.update("INSERT INTO events (annotation, category_id, description, event_date, initiator_id, " +
+                        "location_id, paid, participant_limit, published_on, request_moderation, state, title) " +
+                        "SELECT 'Viewed event annotation', ?, 'Viewed event', " +
+                        "NOW() + INTERVAL '1 day' + g * INTERVAL '1 minute', ?, ?, false, 0, NOW(), false, " +
+                        "'PUBLISHED', 'Viewed event' " +
+                        "FROM generate_series(1, ?) AS g",
+                categoryId, initiatorId, locationId, EVENTS);
+        jdbcTemplate.execute("VACUUM ANALYZE events");
+
+        log.info("views sync benchmark: loaded {} events in {} ms",
+                EVENTS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @Test
+    void synchronizesOnlyHitEventsBetweenFullSyncs() {
+
+        jdbcTemplate.update("UPDATE events SET views = 0 WHERE state = 'PUBLISHED' AND views <> 0");
+        List<Long> publishedEventIds = jdbcTemplate.queryForList("SELECT id FROM events " +
+                "WHERE state = 'PUBLISHED' ORDER BY id", Long.class);
+        publishedEventIds.forEach(eventId -> viewsOfEvents.put(eventId, eventId % 1000 + 1));
+        int batches = (publishedEventIds.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+
+        EventViewsSynchronizer synchronizer = createSynchronizer();
+        SyncRun initial = synchronize(synchronizer::synchronizeViews);
+        log.info("views sync benchmark, {} published events, initial full sync: {} ms, {} stats calls, " +
+                        "{} statements, {} events updated",
+                publishedEventIds.size(), initial.elapsedMs, initial.statsCalls, initial.statements,
+                initial.updatedEvents);
+        assertEquals(publishedEventIds.size(), initial.updatedEvents);
+        assertEquals(batches, initial.statsCalls);
+
+        SyncRun incremental = measure(publishedEventIds, () -> synchronize(synchronizer::synchronizeViews));
+        SyncRun full = measure(publishedEventIds, () -> synchronize(createSynchronizer()::synchronizeViews));
+        log.info("views sync benchmark, {} published events, {} hit events: incremental sync {} ms, " +
+                        "{} stats calls, {} statements, {} events updated; full sync {} ms, {} stats calls, " +
+                        "{} statements, {} events updated",
+                publishedEventIds.size(), HIT_EVENTS,
+                incremental.elapsedMs, incremental.statsCalls, incremental.statements, incremental.updatedEvents,
+                full.elapsedMs, full.statsCalls, full.statements, full.updatedEvents);
+
+        assertEquals(HIT_EVENTS, incremental.updatedEvents);
+        assertEquals(1 + (HIT_EVENTS + BATCH_SIZE - 1) / BATCH_SIZE, incremental.statsCalls);
+        assertEquals(HIT_EVENTS, full.updatedEvents);
+        assertEquals(batches, full.statsCalls);
+        jdbcTemplate.query("SELECT id, views FROM events WHERE state = 'PUBLISHED'", resultSet -> {
+            assertEquals(viewsOfEvents.get(resultSet.getLong("id")), resultSet.getLong("views"));
+        });
+    }
+
+    private EventViewsSynchronizer createSynchronizer() {
+        return new EventViewsSynchronizer(eventRepository, new EventViewsLoader(statsClient, eventMapper),
+                compilationReadModel, BATCH_SIZE, 300_000, 3_600_000);
+    }
+
+    private SyncRun measure(List<Long> publishedEventIds, Supplier<SyncRun> sync) {
+
+        return Benchmark.medianRun(run -> {
+            hitEventIds.clear();
+            for (int i = 0; i < HIT_EVENTS; i++) {
+                long eventId = publishedEventIds.get((run * HIT_EVENTS + i) * 7919 % publishedEventIds.size());
+                hitEventIds.add(eventId);
+                viewsOfEvents.merge(eventId, 1L, Long::sum);
+            }
+            return sync.get();
+        }, syncRun -> syncRun.elapsedMs);
+    }
+
+    private SyncRun synchronize(Runnable sync) {
+
+        clearInvocations(statsClient, compilationReadModel);
+        long startedAt = System.nanoTime();
+        long statements;
+        try {
+            statements = statementCounter.count(() -> {
+                sync.run();
+                return null;
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        double elapsedMs = Benchmark.elapsedMsSince(startedAt);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> updatedEventIds = ArgumentCaptor.forClass(Collection.class);
+        verify(compilationReadModel).invalidateEvents(updatedEventIds.capture());
+        return new SyncRun(elapsedMs, mockingDetails(statsClient).getInvocations().size(), statements,
+                new HashSet<>(updatedEventIds.getValue()).size());
+    }
+
+    @AllArgsConstructor
+    private static class SyncRun {
+        private final double elapsedMs;
+        private final int statsCalls;
+        private final long statements;
+        private final int updatedEvents;
+    }
+}
@@ -0,0 +1,219 @@
+package ru.practicum.explorewithme.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.dto.request.UpdateStatusOfRequestsForEventDto;
+import ru.practicum.explorewithme.enums.RequestForEventStatus;
+import ru.practicum.explorewithme.exception.LimitReachedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class RequestForEventServiceConcurrencyTest extends PostgresIntegrationTest {
+    private static final int THREADS = 64;
+    private static final long PARTICIPANT_LIMIT = 100;
+
+    @Autowired
+    private RequestForEventService requestForEventService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void stopExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    void admitsNoMoreParticipantsThanLimitWhenThousandsRequestOneEvent() throws Exception {
+
+        int requesters = 3000;
+        long initiatorId = createUsers(1).get(0);
+        long eventId = createPublishedEvent(initiatorId, PARTICIPANT_LIMIT, false);
+        List<Long> requesterIds = createUsers(requesters);
+
+        List<Callable<Void>> requests = new ArrayList<>();
+        for (Long requesterId : requesterIds) {
+            requests.add(() -> {
+                requestForEventService.createRequestForEventByUser(requesterId, eventId);
+                return null;
+            });
+        }
+
+        Outcomes outcomes = runConcurrently("create request for hot event", requests);
+
+        assertEquals(PARTICIPANT_LIMIT, outcomes.succeeded);
+        assertEquals(requesters - PARTICIPANT_LIMIT, outcomes.limitReached);
+        assertEquals(0, outcomes.failed);
+        assertEquals(PARTICIPANT_LIMIT, countRequests(eventId, RequestForEventStatus.CONFIRMED));
+        assertEquals(PARTICIPANT_LIMIT, findConfirmedRequestsCounter(eventId));
+    }
+
+    @Test
+    void confirmsNoMoreRequestsThanLimitWhenInitiatorDecidesInParallel() throws Exception {
+
+        int requesters = 2000;
+        int requestsPerDecision = 10;
+        long initiatorId = createUsers(1).get(0);
+        long eventId = createPublishedEvent(initiatorId, PARTICIPANT_LIMIT, true);
+        List<Long> requestIds = createPendingRequests(eventId, createUsers(requesters));
+
+        List<Callable<Void>> decisions = new ArrayList<>();
+        for (int from = 0; from < requestIds.size(); from += requestsPerDecision) {
+            List<Long> decidedRequestIds = requestIds.subList(from, from + requestsPerDecision);
+            decisions.add(() -> {
+                requestForEventService.updateStatusOfRequestsForEventByInitiator(
+                        new UpdateStatusOfRequestsForEventDto(decidedRequestIds, RequestForEventStatus.CONFIRMED),
+                        initiatorId, eventId);
+                return null;
+            });
+        }
+
+        Outcomes outcomes = runConcurrently("confirm requests of hot event", decisions);
+
+        assertEquals(0, outcomes.failed);
+        assertEquals(PARTICIPANT_LIMIT, countRequests(eventId, RequestForEventStatus.CONFIRMED));
+        assertEquals(PARTICIPANT_LIMIT, findConfirmedRequestsCounter(eventId));
+        assertEquals(requesters, countRequests(eventId, RequestForEventStatus.CONFIRMED)
+                + countRequests(eventId, RequestForEventStatus.REJECTED)
+                + countRequests(eventId, RequestForEventStatus.PENDING));
+    }
+
+    @Test
+    void decrementsCounterOncePerConfirmedRequestWhenCanceledConcurrently() throws Exception {
+
+        int requesters = 1000;
+        long initiatorId = createUsers(1).get(0);
+        long eventId = createPublishedEvent(initiatorId, requesters, false);
+        List<Long> requesterIds = createUsers(requesters);
+
+        List<Long> requestIds = new ArrayList<>();
+        for (Long requesterId : requesterIds) {
+            requestIds.add(requestForEventService.createRequestForEventByUser(requesterId, eventId).getId());
+        }
+        assertEquals(requesters, findConfirmedRequestsCounter(eventId));
+
+        List<Callable<Void>> cancellations = new ArrayList<>();
+        for (int i = 0; i < requestIds.size(); i++) {
+            long requesterId = requesterIds.get(i);
+            long requestId = requestIds.get(i);
+            for (int attempt = 0; attempt < 2; attempt++) {
+                cancellations.add(() -> {
+                    requestForEventService.cancelRequestForEventByUser(requesterId, requestId);
+                    return null;
+                });
+            }
+        }
+
+        Outcomes outcomes = runConcurrently("cancel confirmed requests twice", cancellations);
+
+        assertEquals(cancellations.size(), outcomes.succeeded);
+        assertEquals(requesters, countRequests(eventId, RequestForEventStatus.CANCELED));
+        assertEquals(0, findConfirmedRequestsCounter(eventId));
+    }
+
+    private Outcomes runConcurrently(String scenario, List<Callable<Void>> tasks) throws Exception {
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+
+        Outcomes outcomes = new Outcomes();
+        for (Future<Void> future : futures) {
+            try {
+                future.get(5, TimeUnit.MINUTES);
+                outcomes.succeeded++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof LimitReachedException) {
+                    outcomes.limitReached++;
+                } else {
+                    outcomes.failed++;
+                    log.warn("{}: unexpected failure: {}", scenario, e.getCause().toString());
+                }
+            }
+        }
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        log.info("{}: {} calls on {} threads in {} ms, {} calls/s, {} succeeded, {} hit the limit, {} failed",
+                scenario, tasks.size(), THREADS, elapsedMs, tasks.size() * 1000L / elapsedMs,
+                outcomes.succeeded, outcomes.limitReached, outcomes.failed);
+        return outcomes;
+    }
+
+    private List<Long> createUsers(int count) {
+        String prefix = UUID.randomUUID().toString();
+        return jdbcTemplate.queryForList("INSERT INTO users (email, name) " +
+                        "SELECT ? || '-' || g || '@example.com', 'user ' || g FROM generate_series(1, ?) AS g " +
+                        "RETURNING id",
+                Long.class, prefix, count);
+    }
+
+    private long createPublishedEvent(long initiatorId, long participantLimit, boolean requestModeration) {
+
+        Long categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 30));
+        Long locationId = jdbcTemplate.queryForObject(
+                "INSERT INTO locations (latitude, longitude) VALUES (55.75, 37.62) RETURNING id", Long.class);
+
+        return jdbcTemplate.queryForObject("INSERT INTO events (annotation, category_id, description, event_date, " +
+                        "initiator_id, location_id, paid, participant_limit, published_on, request_moderation, " +
+                        "state, title) " +
+                        "VALUES ('Hot event annotation', ?, 'Hot event', NOW() + INTERVAL '7 days', ?, ?, false, ?, " +
+                        "NOW(), ?, 'PUBLISHED', 'Hot event') " +
+                        "RETURNING id",
+                Long.class, categoryId, initiatorId, locationId, participantLimit, requestModeration);
+    }
+
+    private List<Long> createPendingRequests(long eventId, List<Long> requesterIds) {
+        return jdbcTemplate.queryForList("INSERT INTO requests_for_events (event_id, requester_id, status) " +
+                        "SELECT ?, requester_id, 'PENDING' FROM UNNEST(?::BIGINT[]) AS requester_id " +
+                        "RETURNING id",
+                Long.class, eventId, requesterIds.toArray(new Long[0]));
+    }
+
+    private long countRequests(long eventId, RequestForEventStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests_for_events WHERE event_id = ? AND status = ?",
+                Long.class, eventId, status.name());
+    }
+
+    private long findConfirmedRequestsCounter(long eventId) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Long.class, eventId);
+    }
+
+    private static class Outcomes {
+        private long succeeded;
+        private long limitReached;
+        private long failed;
+    }
+}
@@ -13,9 +13,12 @@ import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.explorewithme.StatsBatchResponseDto;
 import ru.practicum.explorewithme.StatsRequestDto;
 import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.format.StatsSmileFormat;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,13 +27,22 @@ import java.util.Map;
 @Slf4j
 public class StatsClient {
     private final RestTemplate rest;
+    private final MediaType wireMediaType;
 
     @Autowired
-    public StatsClient(@Value("${ewm-stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${ewm-stats-server.url}") String serverUrl,
+                       @Value("${ewm-stats-server.wire-format:json}") String wireFormat,
+                       @Value("${ewm-stats-server.connect-timeout-ms:500}") long connectTimeoutMs,
+                       @Value("${ewm-stats-server.read-timeout-ms:1000}") long readTimeoutMs,
+                       RestTemplateBuilder builder) {
         this.rest = builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
                 .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                .additionalMessageConverters(StatsSmileFormat.createMessageConverter())
                 .build();
+        this.wireMediaType = "smile".equalsIgnoreCase(wireFormat) ? StatsSmileFormat.MEDIA_TYPE : MediaType.APPLICATION_JSON;
     }
 
     public StatsResponseDto registerEndpointHit(StatsRequestDto statsRequestDto) {
@@ -38,6 +50,11 @@ public class StatsClient {
                 new ParameterizedTypeReference<>() {});
     }
 
+    public StatsBatchResponseDto registerEndpointHits(List<StatsRequestDto> statsRequestDtos) {
+        return makeAndSendRequest(HttpMethod.POST, "/hit/batch", null, statsRequestDtos,
+                new ParameterizedTypeReference<>() {});
+    }
+
     public List<StatsResponseDto> getStats(String start, String end, List<String> uris, boolean unique) {
         String path;
         String uriRequestParam = null;
@@ -83,8 +100,8 @@ public class StatsClient {
 
     private HttpHeaders defaultHeaders() {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.setContentType(wireMediaType);
+        headers.setAccept(List.of(wireMediaType));
         return headers;
     }
 
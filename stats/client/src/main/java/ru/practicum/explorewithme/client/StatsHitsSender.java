@@ -0,0 +1,251 @@
+package ru.practicum.explorewithme.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.explorewithme.StatsRequestDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class StatsHitsSender {
+    private final StatsClient statsClient;
+    private final ObjectMapper objectMapper;
+    private final boolean async;
+    private final BlockingQueue<StatsRequestDto> queuedHits;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final Path spillDirectory;
+    private final AtomicLong spillFileSequence = new AtomicLong();
+    private final AtomicLong droppedHits = new AtomicLong();
+    private Thread sender;
+    private volatile boolean running;
+
+    @Autowired
+    public StatsHitsSender(StatsClient statsClient,
+                           ObjectMapper objectMapper,
+                           @Value("${ewm-stats-server.hits.mode:sync}") String mode,
+                           @Value("${ewm-stats-server.hits.queue-capacity:50000}") int queueCapacity,
+                           @Value("${ewm-stats-server.hits.batch-size:500}") int batchSize,
+                           @Value("${ewm-stats-server.hits.flush-interval-ms:1000}") long flushIntervalMs,
+                           @Value("${ewm-stats-server.hits.max-attempts:5}") int maxAttempts,
+                           @Value("${ewm-stats-server.hits.retry-backoff-ms:200}") long retryBackoffMs,
+                           @Value("${ewm-stats-server.hits.max-retry-backoff-ms:10000}") long maxRetryBackoffMs,
+                           @Value("${ewm-stats-server.hits.spill-directory:}") String spillDirectory) {
+        this.statsClient = statsClient;
+        this.objectMapper = objectMapper;
+        this.async = "async".equalsIgnoreCase(mode);
+        this.queuedHits = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        this.spillDirectory = spillDirectory.isBlank() ? null : Paths.get(spillDirectory);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!async) {
+            return;
+        }
+        if (spillDirectory != null) {
+            Files.createDirectories(spillDirectory);
+        }
+        running = true;
+        sender = new Thread(this::sendContinuously, "stats-hits-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!async) {
+            return;
+        }
+        running = false;
+        sender.interrupt();
+        sender.join(flushIntervalMs * 2);
+
+        List<StatsRequestDto> remainingHits = new ArrayList<>();
+        queuedHits.drainTo(remainingHits);
+        if (!remainingHits.isEmpty() && !trySendBatch(remainingHits, 1)) {
+            spill(remainingHits);
+        }
+    }
+
+    public void send(StatsRequestDto statsRequestDto) {
+
+        if (!async) {
+            statsClient.registerEndpointHit(statsRequestDto);
+            return;
+        }
+
+        if (!queuedHits.offer(statsRequestDto)) {
+            droppedHits.incrementAndGet();
+        }
+    }
+
+    private void sendContinuously() {
+        List<StatsRequestDto> batch = new ArrayList<>(batchSize);
+
+        long reportedDroppedHits = 0;
+
+        while (running) {
+            long currentDroppedHits = droppedHits.get();
+            if (currentDroppedHits > reportedDroppedHits) {
+                log.warn("Очередь записей о просмотрах переполнена, отброшено записей: {} (всего {})",
+                        currentDroppedHits - reportedDroppedHits, currentDroppedHits);
+                reportedDroppedHits = currentDroppedHits;
+            }
+
+            try {
+                StatsRequestDto firstHit = queuedHits.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (firstHit == null) {
+                    resendSpilledHits();
+                    continue;
+                }
+                batch.add(firstHit);
+
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize && System.currentTimeMillis() < deadline) {
+                    if (queuedHits.drainTo(batch, batchSize - batch.size()) == 0) {
+                        TimeUnit.MILLISECONDS.sleep(Math.min(50, flushIntervalMs));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    spill(batch);
+                }
+                return;
+            }
+
+            if (trySendBatch(batch, maxAttempts)) {
+                resendSpilledHits();
+            } else {
+                spill(batch);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private boolean trySendBatch(List<StatsRequestDto> batch, int attempts) {
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            try {
+                statsClient.registerEndpointHits(batch);
+                return true;
+            } catch (RestClientException e) {
+                log.warn("Не удалось отправить {} записей о просмотрах в сервис статистики (попытка {} из {}): {}",
+                        batch.size(), attempt, attempts, e.getMessage());
+                if (attempt < attempts && !sleepWithJitter(attempt)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean sleepWithJitter(int attempt) {
+        long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void spill(List<StatsRequestDto> hits) {
+
+        if (spillDirectory == null) {
+            log.warn("Записи о просмотрах ({} шт.) потеряны: очередь переполнена или сервис статистики недоступен.",
+                    hits.size());
+            return;
+        }
+
+        Path spillFile = spillDirectory.resolve(String.format("hits-%d-%d.ndjson",
+                System.currentTimeMillis(), spillFileSequence.incrementAndGet()));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8)) {
+            for (StatsRequestDto hit : hits) {
+                writer.write(objectMapper.writeValueAsString(hit));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить {} записей о просмотрах в файл {}: {}", hits.size(), spillFile, e.toString());
+        }
+    }
+
+    private void resendSpilledHits() {
+
+        if (spillDirectory == null) {
+            return;
+        }
+
+        try (DirectoryStream<Path> spillFiles = Files.newDirectoryStream(spillDirectory, "hits-*.ndjson")) {
+            for (Path spillFile : spillFiles) {
+                List<StatsRequestDto> spilledHits;
+                try {
+                    spilledHits = readSpillFile(spillFile);
+                } catch (JsonProcessingException e) {
+                    moveAsideCorruptSpillFile(spillFile, e);
+                    continue;
+                }
+                if (!spilledHits.isEmpty() && !trySendBatch(spilledHits, 1)) {
+                    return;
+                }
+                Files.deleteIfExists(spillFile);
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать сохранённые записи о просмотрах из {}: {}", spillDirectory, e.toString());
+        }
+    }
+
+    private void moveAsideCorruptSpillFile(Path spillFile, JsonProcessingException cause) throws IOException {
+        Path corruptFile = spillFile.resolveSibling(spillFile.getFileName() + ".corrupt");
+        Files.move(spillFile, corruptFile, StandardCopyOption.REPLACE_EXISTING);
+        log.error("Файл сохранённых записей о просмотрах {} повреждён и переименован в {}: {}",
+                spillFile, corruptFile, cause.getOriginalMessage());
+    }
+
+    private List<StatsRequestDto> readSpillFile(Path spillFile) throws IOException {
+        List<StatsRequestDto> spilledHits = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    spilledHits.add(objectMapper.readValue(line, StatsRequestDto.class));
+                }
+            }
+        }
+        return spilledHits;
+    }
+}
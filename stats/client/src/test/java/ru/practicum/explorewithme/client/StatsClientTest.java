@@ -0,0 +1,37 @@
+package ru.practicum.explorewithme.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StatsClientTest {
+
+    @Test
+    void givesUpOnStatsServerThatDoesNotAnswerWithinReadTimeout() throws Exception {
+
+        try (ServerSocket hangingServer = new ServerSocket(0)) {
+            Thread acceptor = new Thread(() -> {
+                try (Socket ignored = hangingServer.accept()) {
+                    Thread.sleep(10_000);
+                } catch (Exception ignored) {
+                    // the client is expected to give up first
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            StatsClient statsClient = new StatsClient("http://localhost:" + hangingServer.getLocalPort(), "json",
+                    200, 200, new RestTemplateBuilder());
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(ResourceAccessException.class,
+                    () -> statsClient.getStats("2026-01-01 00:00:00", "2026-12-31 23:59:59", null, false)));
+        }
+    }
+}
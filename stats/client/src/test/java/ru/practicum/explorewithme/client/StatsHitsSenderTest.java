@@ -0,0 +1,68 @@
+package ru.practicum.explorewithme.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.explorewithme.StatsBatchResponseDto;
+import ru.practicum.explorewithme.StatsRequestDto;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatsHitsSenderTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void movesTruncatedSpillFileAsideAndResendsTheOthers() throws Exception {
+
+        StatsRequestDto hit = StatsRequestDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip("192.168.0.1")
+                .timestamp(LocalDateTime.of(2026, 10, 18, 12, 0, 0))
+                .build();
+        String line = objectMapper.writeValueAsString(hit);
+        Path truncatedFile = spillDirectory.resolve("hits-1-1.ndjson");
+        Path completeFile = spillDirectory.resolve("hits-2-2.ndjson");
+        Files.writeString(truncatedFile, line + System.lineSeparator() + line.substring(0, line.length() / 2),
+                StandardCharsets.UTF_8);
+        Files.writeString(completeFile, line + System.lineSeparator(), StandardCharsets.UTF_8);
+
+        StatsClient statsClient = mock(StatsClient.class);
+        when(statsClient.registerEndpointHits(anyList())).thenReturn(new StatsBatchResponseDto(1L, 1L, 0L));
+        StatsHitsSender sender = new StatsHitsSender(statsClient, objectMapper, "async", 10, 10, 20, 1, 10, 10,
+                spillDirectory.toString());
+
+        sender.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (Files.exists(completeFile) && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+        } finally {
+            sender.stop();
+        }
+
+        assertFalse(Files.exists(completeFile));
+        assertFalse(Files.exists(truncatedFile));
+        assertTrue(Files.exists(spillDirectory.resolve("hits-1-1.ndjson.corrupt")));
+        verify(statsClient).registerEndpointHits(List.of(hit));
+        assertEquals(2, Files.readAllLines(spillDirectory.resolve("hits-1-1.ndjson.corrupt")).size());
+    }
+}
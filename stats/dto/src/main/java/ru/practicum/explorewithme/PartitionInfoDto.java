@@ -0,0 +1,17 @@
+package ru.practicum.explorewithme;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PartitionInfoDto {
+    private String name;
+    private String bounds;
+    private Long estimatedRows;
+    private Long totalBytes;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.explorewithme;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatsBatchResponseDto {
+    private Long received;
+    private Long accepted;
+    private Long rejected;
+}
@@ -0,0 +1,67 @@
+package ru.practicum.explorewithme.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import ru.practicum.explorewithme.StatsRequestDto;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public final class StatsSmileFormat {
+    public static final String MEDIA_TYPE_VALUE = "application/x-jackson-smile";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private StatsSmileFormat() {
+    }
+
+    public static ObjectMapper createObjectMapper() {
+
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+
+        return new ObjectMapper(smileFactory)
+                .registerModule(new JavaTimeModule())
+                .addMixIn(StatsRequestDto.class, EpochMillisTimestampMixIn.class);
+    }
+
+    public static MappingJackson2SmileHttpMessageConverter createMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(createObjectMapper());
+    }
+
+    private abstract static class EpochMillisTimestampMixIn {
+        @JsonSerialize(using = EpochMillisSerializer.class)
+        @JsonDeserialize(using = EpochMillisDeserializer.class)
+        private LocalDateTime timestamp;
+    }
+
+    private static class EpochMillisSerializer extends JsonSerializer<LocalDateTime> {
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator,
+                              SerializerProvider serializers) throws IOException {
+            generator.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    private static class EpochMillisDeserializer extends JsonDeserializer<LocalDateTime> {
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneOffset.UTC);
+        }
+    }
+}
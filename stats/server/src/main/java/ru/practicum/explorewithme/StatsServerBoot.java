@@ -2,8 +2,10 @@ package ru.practicum.explorewithme;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class StatsServerBoot {
     public static void main(String[] args) {
         SpringApplication.run(StatsServerBoot.class, args);
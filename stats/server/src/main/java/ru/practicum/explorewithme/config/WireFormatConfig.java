@@ -0,0 +1,15 @@
+package ru.practicum.explorewithme.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import ru.practicum.explorewithme.format.StatsSmileFormat;
+
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return StatsSmileFormat.createMessageConverter();
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.explorewithme.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.explorewithme.PartitionInfoDto;
+import ru.practicum.explorewithme.service.StatsAdminService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/admin")
+public class StatsAdminController {
+    private final StatsAdminService statsAdminService;
+
+    @Autowired
+    public StatsAdminController(StatsAdminService statsAdminService) {
+        this.statsAdminService = statsAdminService;
+    }
+
+    @GetMapping("/partitions")
+    public List<PartitionInfoDto> getPartitions() {
+        return statsAdminService.getPartitions();
+    }
+}
@@ -2,13 +2,21 @@ package ru.practicum.explorewithme.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.explorewithme.StatsBatchResponseDto;
 import ru.practicum.explorewithme.StatsRequestDto;
 import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.enums.StatsPrecision;
+import ru.practicum.explorewithme.format.StatsSmileFormat;
 import ru.practicum.explorewithme.service.StatsServerService;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -16,6 +24,7 @@ import java.util.List;
 @RestController
 public class StatsServerController {
     private final StatsServerService statsServerService;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final String dateTimePattern = "yyyy-MM-dd HH:mm:ss";
 
     @Autowired
@@ -29,13 +38,54 @@ public class StatsServerController {
         return statsServerService.registerEndpointHit(statsRequestDto);
     }
 
+    @PostMapping(value = "/hit/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, StatsSmileFormat.MEDIA_TYPE_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public StatsBatchResponseDto registerEndpointHits(@RequestBody List<StatsRequestDto> statsRequestDtos) {
+        return statsServerService.registerEndpointHits(statsRequestDtos);
+    }
+
+    @PostMapping(value = "/hit/batch", consumes = "application/x-ndjson")
+    @ResponseStatus(HttpStatus.CREATED)
+    public StatsBatchResponseDto registerEndpointHitsFromNdjson(InputStream ndjsonHits) {
+        return statsServerService.registerEndpointHitsFromNdjson(ndjsonHits);
+    }
+
     @GetMapping("/stats")
-    public Collection<StatsResponseDto> getStats(@RequestParam(value = "start")
-                                                 @DateTimeFormat(pattern = dateTimePattern) LocalDateTime start,
-                                                 @RequestParam(value = "end")
-                                                 @DateTimeFormat(pattern = dateTimePattern) LocalDateTime end,
-                                                 @RequestParam(value = "uris", required = false) List<String> uris,
-                                                 @RequestParam(value = "unique", defaultValue = "false") boolean unique) {
-        return statsServerService.getStats(start, end, uris, unique);
+    public ResponseEntity<Collection<StatsResponseDto>> getStats(
+            @RequestParam(value = "start") @DateTimeFormat(pattern = dateTimePattern) LocalDateTime start,
+            @RequestParam(value = "end") @DateTimeFormat(pattern = dateTimePattern) LocalDateTime end,
+            @RequestParam(value = "uris", required = false) List<String> uris,
+            @RequestParam(value = "unique", defaultValue = "false") boolean unique,
+            @RequestParam(value = "precision", defaultValue = "exact") String precision) {
+
+        StatsPrecision statsPrecision = StatsPrecision.findByType(precision);
+        double relativeStandardError = statsServerService.relativeStandardErrorOf(unique, statsPrecision);
+
+        return ResponseEntity.ok()
+                .header("X-Stats-Precision", relativeStandardError > 0 ? "approx" : "exact")
+                .header("X-Stats-Relative-Standard-Error", String.valueOf(relativeStandardError))
+                .body(statsServerService.getStats(start, end, uris, unique, statsPrecision));
+    }
+
+    @GetMapping(value = "/stats", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStats(
+            @RequestParam(value = "start") @DateTimeFormat(pattern = dateTimePattern) LocalDateTime start,
+            @RequestParam(value = "end") @DateTimeFormat(pattern = dateTimePattern) LocalDateTime end,
+            @RequestParam(value = "uris", required = false) List<String> uris,
+            @RequestParam(value = "unique", defaultValue = "false") boolean unique,
+            @RequestParam(value = "afterUri", required = false) String afterUri,
+            @RequestParam(value = "afterApp", required = false) String afterApp,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE)
+            String accept) {
+
+        statsServerService.checkStreamingRequest(start, end, limit);
+        boolean ndjson = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.isCompatibleWith(NDJSON) && !mediaType.isWildcardType());
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(outputStream -> statsServerService.writeStats(start, end, uris, unique,
+                        afterUri, afterApp, limit, ndjson, outputStream));
     }
 }
@@ -0,0 +1,300 @@
+package ru.practicum.explorewithme.dao;
+
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.explorewithme.enums.RollupGranularity;
+import ru.practicum.explorewithme.model.AggregatedHitCount;
+import ru.practicum.explorewithme.model.HyperLogLog;
+import ru.practicum.explorewithme.model.StatUnit;
+import ru.practicum.explorewithme.model.UriIpSketch;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Repository
+public class HitRollupRepository {
+    private static final Comparator<BucketKey> LOCK_ORDER = Comparator.comparing(BucketKey::getUri)
+            .thenComparing(BucketKey::getBucketStart)
+            .thenComparing(BucketKey::getApp);
+    private static final int SKETCH_KEYS_PER_QUERY = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public HitRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addHits(List<StatUnit> statUnits) {
+
+        if (statUnits.isEmpty()) {
+            return;
+        }
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<BucketKey, Long> hitsByBuckets = statUnits.stream()
+                    .collect(Collectors.groupingBy(
+                            statUnit -> new BucketKey(statUnit.getApp(), statUnit.getUri(),
+                                    granularity.floor(statUnit.getTimestamp())),
+                            () -> new TreeMap<>(LOCK_ORDER),
+                            Collectors.counting()));
+
+            SqlParameterSource[] parameters = hitsByBuckets.entrySet().stream()
+                    .map(hitsByBucket -> new MapSqlParameterSource()
+                            .addValue("app", hitsByBucket.getKey().getApp())
+                            .addValue("uri", hitsByBucket.getKey().getUri())
+                            .addValue("bucketStart", Timestamp.valueOf(hitsByBucket.getKey().getBucketStart()))
+                            .addValue("hits", hitsByBucket.getValue()))
+                    .toArray(SqlParameterSource[]::new);
+
+            jdbcTemplate.batchUpdate("INSERT INTO " + granularity.getTableName() + " " +
+                    "(application_name, uri, bucket_start, hits) VALUES (:app, :uri, :bucketStart, :hits) " +
+                    "ON CONFLICT (uri, bucket_start, application_name) " +
+                    "DO UPDATE SET hits = " + granularity.getTableName() + ".hits + EXCLUDED.hits", parameters);
+        }
+    }
+
+    public long findLatestCommittedHitId(long lockTimeoutMs) {
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+        jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE requests_stat IN SHARE MODE");
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM requests_stat", Long.class);
+    }
+
+    public long findAggregatedUpToId() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT aggregated_up_to_id FROM hit_rollup_watermarks WHERE name = 'rollups'", Long.class);
+    }
+
+    public long lockAggregatedUpToId() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT aggregated_up_to_id FROM hit_rollup_watermarks WHERE name = 'rollups' FOR UPDATE",
+                Long.class);
+    }
+
+    public void updateAggregatedUpToId(long id) {
+        jdbcTemplate.update("UPDATE hit_rollup_watermarks SET aggregated_up_to_id = :id WHERE name = 'rollups'",
+                new MapSqlParameterSource("id", id));
+    }
+
+    public List<StatUnit> findHitsInIdRange(long afterId, long upToId, int limit) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("upToId", upToId)
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query("SELECT id, application_name, uri, ip, created_at " +
+                        "FROM requests_stat " +
+                        "WHERE id > :afterId AND id <= :upToId " +
+                        "ORDER BY id " +
+                        "LIMIT :limit",
+                parameters, (resultSet, rowNum) -> StatUnit.builder()
+                        .id(resultSet.getLong("id"))
+                        .app(resultSet.getString("application_name"))
+                        .uri(resultSet.getString("uri"))
+                        .ip(resultSet.getString("ip"))
+                        .timestamp(resultSet.getTimestamp("created_at").toLocalDateTime())
+                        .build());
+    }
+
+    public void replaceHitsFromRawTable(RollupGranularity granularity, String rawTableName,
+                                        LocalDateTime from, LocalDateTime to) {
+
+        jdbcTemplate.update("INSERT INTO " + granularity.getTableName() + " " +
+                "(application_name, uri, bucket_start, hits) " +
+                "SELECT application_name, uri, date_trunc('" + granularity.name().toLowerCase(Locale.ROOT) + "', " +
+                "created_at) AS bucket_start, COUNT(*) " +
+                "FROM " + rawTableName + " " +
+                "WHERE created_at >= :from AND created_at < :to " +
+                "GROUP BY uri, bucket_start, application_name " +
+                "ORDER BY uri, bucket_start, application_name " +
+                "ON CONFLICT (uri, bucket_start, application_name) DO UPDATE SET hits = EXCLUDED.hits",
+                new MapSqlParameterSource()
+                        .addValue("from", Timestamp.valueOf(from))
+                        .addValue("to", Timestamp.valueOf(to)));
+    }
+
+    public int deleteBucketsBefore(RollupGranularity granularity, LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM " + granularity.getTableName() + " WHERE bucket_start < :before",
+                new MapSqlParameterSource("before", Timestamp.valueOf(before)));
+    }
+
+    public void addIpSketches(List<StatUnit> statUnits, int precision) {
+
+        if (statUnits.isEmpty()) {
+            return;
+        }
+
+        for (RollupGranularity granularity : List.of(RollupGranularity.HOUR, RollupGranularity.DAY)) {
+            Map<BucketKey, Set<String>> ipsByBuckets = statUnits.stream()
+                    .collect(Collectors.groupingBy(
+                            statUnit -> new BucketKey(statUnit.getApp(), statUnit.getUri(),
+                                    granularity.floor(statUnit.getTimestamp())),
+                            () -> new TreeMap<>(LOCK_ORDER),
+                            Collectors.mapping(StatUnit::getIp, Collectors.toSet())));
+
+            List<BucketKey> bucketKeys = new ArrayList<>(ipsByBuckets.keySet());
+            for (int from = 0; from < bucketKeys.size(); from += SKETCH_KEYS_PER_QUERY) {
+                List<BucketKey> chunkOfKeys =
+                        bucketKeys.subList(from, Math.min(from + SKETCH_KEYS_PER_QUERY, bucketKeys.size()));
+                Map<BucketKey, HyperLogLog> storedSketches = findIpSketches(granularity, chunkOfKeys);
+
+                SqlParameterSource[] parameters = chunkOfKeys.stream()
+                        .map(bucketKey -> {
+                            HyperLogLog ipSketch = new HyperLogLog(precision);
+                            ipsByBuckets.get(bucketKey).forEach(ipSketch::add);
+                            HyperLogLog storedSketch = storedSketches.get(bucketKey);
+
+                            return new MapSqlParameterSource()
+                                    .addValue("app", bucketKey.getApp())
+                                    .addValue("uri", bucketKey.getUri())
+                                    .addValue("bucketStart", Timestamp.valueOf(bucketKey.getBucketStart()))
+                                    .addValue("ipSketch", (storedSketch == null ? ipSketch
+                                            : storedSketch.merge(ipSketch)).toBytes());
+                        })
+                        .toArray(SqlParameterSource[]::new);
+
+                jdbcTemplate.batchUpdate("UPDATE " + granularity.getTableName() + " SET ip_sketch = :ipSketch " +
+                        "WHERE uri = :uri AND bucket_start = :bucketStart AND application_name = :app", parameters);
+            }
+        }
+    }
+
+    public List<AggregatedHitCount> countHitsInBuckets(RollupGranularity granularity,
+                                                       LocalDateTime fromInclusive, LocalDateTime toExclusive,
+                                                       List<String> uris) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(fromInclusive))
+                .addValue("to", Timestamp.valueOf(toExclusive))
+                .addValue("uris", uris);
+
+        return jdbcTemplate.query("SELECT application_name, uri, SUM(hits) AS total_hits " +
+                        "FROM " + granularity.getTableName() + " " +
+                        "WHERE bucket_start >= :from AND bucket_start < :to " +
+                        (uris == null ? "" : "AND uri IN (:uris) ") +
+                        "GROUP BY uri, application_name",
+                parameters, (resultSet, rowNum) -> new AggregatedHitCount(
+                        resultSet.getString("application_name"),
+                        resultSet.getString("uri"),
+                        resultSet.getLong("total_hits")));
+    }
+
+    public List<AggregatedHitCount> countRawHits(LocalDateTime fromInclusive, LocalDateTime to,
+                                                 boolean toInclusive, List<String> uris) {
+        return countRawHits(fromInclusive, to, toInclusive, uris, null);
+    }
+
+    public List<AggregatedHitCount> countRawHits(LocalDateTime fromInclusive, LocalDateTime to,
+                                                 boolean toInclusive, List<String> uris, Long afterId) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(fromInclusive))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("uris", uris)
+                .addValue("afterId", afterId);
+
+        return jdbcTemplate.query("SELECT application_name, uri, COUNT(*) AS total_hits " +
+                        "FROM requests_stat " +
+                        "WHERE created_at >= :from AND created_at " + (toInclusive ? "<=" : "<") + " :to " +
+                        (uris == null ? "" : "AND uri IN (:uris) ") +
+                        (afterId == null ? "" : "AND id > :afterId ") +
+                        "GROUP BY uri, application_name",
+                parameters, (resultSet, rowNum) -> new AggregatedHitCount(
+                        resultSet.getString("application_name"),
+                        resultSet.getString("uri"),
+                        resultSet.getLong("total_hits")));
+    }
+
+    public void collectIpSketches(RollupGranularity granularity,
+                                  LocalDateTime fromInclusive, LocalDateTime toExclusive,
+                                  List<String> uris, Consumer<UriIpSketch> consumer) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(fromInclusive))
+                .addValue("to", Timestamp.valueOf(toExclusive))
+                .addValue("uris", uris);
+
+        jdbcTemplate.query("SELECT application_name, uri, ip_sketch " +
+                        "FROM " + granularity.getTableName() + " " +
+                        "WHERE bucket_start >= :from AND bucket_start < :to AND ip_sketch IS NOT NULL " +
+                        (uris == null ? "" : "AND uri IN (:uris) "),
+                parameters, resultSet -> {
+                    consumer.accept(new UriIpSketch(
+                            resultSet.getString("application_name"),
+                            resultSet.getString("uri"),
+                            HyperLogLog.fromBytes(resultSet.getBytes("ip_sketch"))));
+                });
+    }
+
+    public void collectDistinctIps(LocalDateTime fromInclusive, LocalDateTime to, boolean toInclusive,
+                                   List<String> uris, Consumer<StatUnit> consumer) {
+        collectDistinctIps(fromInclusive, to, toInclusive, uris, null, consumer);
+    }
+
+    public void collectDistinctIps(LocalDateTime fromInclusive, LocalDateTime to, boolean toInclusive,
+                                   List<String> uris, Long afterId, Consumer<StatUnit> consumer) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(fromInclusive))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("uris", uris)
+                .addValue("afterId", afterId);
+
+        jdbcTemplate.query("SELECT DISTINCT application_name, uri, ip " +
+                        "FROM requests_stat " +
+                        "WHERE created_at >= :from AND created_at " + (toInclusive ? "<=" : "<") + " :to " +
+                        (uris == null ? "" : "AND uri IN (:uris) ") +
+                        (afterId == null ? "" : "AND id > :afterId "),
+                parameters, resultSet -> {
+                    consumer.accept(StatUnit.builder()
+                            .app(resultSet.getString("application_name"))
+                            .uri(resultSet.getString("uri"))
+                            .ip(resultSet.getString("ip"))
+                            .build());
+                });
+    }
+
+    private Map<BucketKey, HyperLogLog> findIpSketches(RollupGranularity granularity, List<BucketKey> bucketKeys) {
+
+        List<Object[]> keyTuples = bucketKeys.stream()
+                .map(bucketKey -> new Object[]{bucketKey.getUri(), Timestamp.valueOf(bucketKey.getBucketStart()),
+                        bucketKey.getApp()})
+                .collect(Collectors.toList());
+
+        Map<BucketKey, HyperLogLog> ipSketches = new HashMap<>();
+        jdbcTemplate.query("SELECT application_name, uri, bucket_start, ip_sketch " +
+                        "FROM " + granularity.getTableName() + " " +
+                        "WHERE (uri, bucket_start, application_name) IN (:keys) AND ip_sketch IS NOT NULL",
+                new MapSqlParameterSource("keys", keyTuples), resultSet -> {
+                    ipSketches.put(new BucketKey(
+                                    resultSet.getString("application_name"),
+                                    resultSet.getString("uri"),
+                                    resultSet.getTimestamp("bucket_start").toLocalDateTime()),
+                            HyperLogLog.fromBytes(resultSet.getBytes("ip_sketch")));
+                });
+        return ipSketches;
+    }
+
+    @Value
+    private static class BucketKey {
+        String app;
+        String uri;
+        LocalDateTime bucketStart;
+    }
+}
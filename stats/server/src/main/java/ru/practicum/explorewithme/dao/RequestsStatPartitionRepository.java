@@ -0,0 +1,107 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.explorewithme.PartitionInfoDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Repository
+public class RequestsStatPartitionRepository {
+    public static final String PARENT_TABLE_NAME = "requests_stat";
+    public static final String DEFAULT_PARTITION_NAME = "requests_stat_default";
+    private static final String DAILY_PARTITION_PREFIX = "requests_stat_p";
+    private static final DateTimeFormatter DAILY_PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern DAILY_PARTITION_NAME = Pattern.compile(DAILY_PARTITION_PREFIX + "(\\d{8})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RequestsStatPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static String dailyPartitionName(LocalDate day) {
+        return DAILY_PARTITION_PREFIX + day.format(DAILY_PARTITION_SUFFIX);
+    }
+
+    public boolean isParentTablePartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, PARENT_TABLE_NAME));
+    }
+
+    public List<PartitionInfoDto> findPartitions() {
+        return jdbcTemplate.query("SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bounds, " +
+                        "GREATEST(c.reltuples, 0)::BIGINT AS estimated_rows, " +
+                        "pg_total_relation_size(c.oid) AS total_bytes " +
+                        "FROM pg_inherits AS i " +
+                        "JOIN pg_class AS c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass(?) " +
+                        "ORDER BY c.relname",
+                (resultSet, rowNum) -> PartitionInfoDto.builder()
+                        .name(resultSet.getString("name"))
+                        .bounds(resultSet.getString("bounds"))
+                        .estimatedRows(resultSet.getLong("estimated_rows"))
+                        .totalBytes(resultSet.getLong("total_bytes"))
+                        .build(),
+                PARENT_TABLE_NAME);
+    }
+
+    public List<LocalDate> findDailyPartitionDays() {
+        return findPartitions().stream()
+                .map(partition -> DAILY_PARTITION_NAME.matcher(partition.getName()))
+                .filter(Matcher::matches)
+                .map(matcher -> LocalDate.parse(matcher.group(1), DAILY_PARTITION_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    public int createDailyPartition(LocalDate day) {
+
+        String partitionName = dailyPartitionName(day);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+
+        jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION_NAME + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + partitionName + " " +
+                "(LIKE " + PARENT_TABLE_NAME + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+
+        int movedRows = jdbcTemplate.update("WITH moved AS (" +
+                "DELETE FROM " + DEFAULT_PARTITION_NAME + " WHERE created_at >= ? AND created_at < ? " +
+                "RETURNING id, application_name, uri, ip, created_at) " +
+                "INSERT INTO " + partitionName + " (id, application_name, uri, ip, created_at) " +
+                "SELECT id, application_name, uri, ip, created_at FROM moved", from, to);
+
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE_NAME + " ATTACH PARTITION " + partitionName + " " +
+                "FOR VALUES FROM ('" + day + " 00:00:00') TO ('" + day.plusDays(1) + " 00:00:00')");
+
+        return movedRows;
+    }
+
+    public List<LocalDate> findDefaultPartitionDaysBefore(LocalDate day) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT CAST(created_at AS DATE) AS day " +
+                        "FROM " + DEFAULT_PARTITION_NAME + " WHERE created_at < ? ORDER BY day",
+                LocalDate.class, Timestamp.valueOf(day.atStartOfDay()));
+    }
+
+    public int deleteDefaultPartitionRows(LocalDate day) {
+        return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION_NAME + " WHERE created_at >= ? AND created_at < ?",
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    public void detachAndDropDailyPartition(LocalDate day) {
+
+        String partitionName = dailyPartitionName(day);
+
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE_NAME + " DETACH PARTITION " + partitionName);
+        jdbcTemplate.execute("DROP TABLE " + partitionName);
+    }
+}
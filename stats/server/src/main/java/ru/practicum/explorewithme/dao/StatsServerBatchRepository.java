@@ -0,0 +1,20 @@
+package ru.practicum.explorewithme.dao;
+
+import ru.practicum.explorewithme.model.AggregatedHitCount;
+import ru.practicum.explorewithme.model.StatUnit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface StatsServerBatchRepository {
+
+    int insertAllInBatches(List<StatUnit> statUnits);
+
+    void scanHitsAfterId(long id, int fetchSize, Consumer<StatUnit> consumer);
+
+    void scanHitCountsOrderedByUri(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                   String afterUri, String afterApp, Integer limit,
+                                   Consumer<AggregatedHitCount> consumer);
+
+}
@@ -0,0 +1,113 @@
+package ru.practicum.explorewithme.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.explorewithme.model.AggregatedHitCount;
+import ru.practicum.explorewithme.model.StatUnit;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class StatsServerBatchRepositoryImpl implements StatsServerBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public StatsServerBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                          @Value("${stats-server.batch.jdbc-batch-size:500}") int batchSize,
+                                          @Value("${stats-server.streaming.fetch-size:1000}") int streamingFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+
+        JdbcTemplate fetchingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        fetchingJdbcTemplate.setFetchSize(streamingFetchSize);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(fetchingJdbcTemplate);
+    }
+
+    @Override
+    public int insertAllInBatches(List<StatUnit> statUnits) {
+
+        if (statUnits.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.execute("LOCK TABLE requests_stat IN ROW EXCLUSIVE MODE");
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval('requests_stat_id_seq') FROM generate_series(1, ?)", Long.class, statUnits.size());
+        for (int i = 0; i < statUnits.size(); i++) {
+            statUnits.get(i).setId(ids.get(i));
+        }
+
+        int[][] insertedRowsByBatches = jdbcTemplate.batchUpdate(
+                "INSERT INTO requests_stat (id, application_name, uri, ip, created_at) VALUES (?, ?, ?, ?, ?)",
+                statUnits, batchSize, (preparedStatement, statUnit) -> {
+                    preparedStatement.setLong(1, statUnit.getId());
+                    preparedStatement.setString(2, statUnit.getApp());
+                    preparedStatement.setString(3, statUnit.getUri());
+                    preparedStatement.setString(4, statUnit.getIp());
+                    preparedStatement.setTimestamp(5, Timestamp.valueOf(statUnit.getTimestamp()));
+                });
+
+        return Arrays.stream(insertedRowsByBatches)
+                .flatMapToInt(Arrays::stream)
+                .map(insertedRows -> insertedRows < 0 ? 1 : insertedRows)
+                .sum();
+    }
+
+    @Override
+    public void scanHitsAfterId(long id, int fetchSize, Consumer<StatUnit> consumer) {
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT id, application_name, uri, ip, created_at FROM requests_stat WHERE id > ? ORDER BY id");
+            preparedStatement.setFetchSize(fetchSize);
+            preparedStatement.setLong(1, id);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(StatUnit.builder()
+                .id(resultSet.getLong("id"))
+                .app(resultSet.getString("application_name"))
+                .uri(resultSet.getString("uri"))
+                .ip(resultSet.getString("ip"))
+                .timestamp(resultSet.getTimestamp("created_at").toLocalDateTime())
+                .build()));
+    }
+
+    @Override
+    public void scanHitCountsOrderedByUri(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                          String afterUri, String afterApp, Integer limit,
+                                          Consumer<AggregatedHitCount> consumer) {
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end))
+                .addValue("uris", uris)
+                .addValue("afterUri", afterUri)
+                .addValue("afterApp", afterApp == null ? "" : afterApp)
+                .addValue("limit", limit);
+
+        String afterCondition = afterUri == null ? "" : "AND (uri, application_name) > (:afterUri, :afterApp) ";
+
+        streamingJdbcTemplate.query("SELECT application_name, uri, " +
+                        (unique ? "COUNT(DISTINCT ip)" : "COUNT(*)") + " AS total_hits " +
+                        "FROM requests_stat " +
+                        "WHERE created_at BETWEEN :start AND :end " +
+                        (uris == null || uris.isEmpty() ? "" : "AND uri IN (:uris) ") +
+                        afterCondition +
+                        "GROUP BY uri, application_name " +
+                        "ORDER BY uri, application_name" +
+                        (limit == null ? "" : " LIMIT :limit"),
+                parameters, (RowCallbackHandler) resultSet -> consumer.accept(new AggregatedHitCount(
+                        resultSet.getString("application_name"),
+                        resultSet.getString("uri"),
+                        resultSet.getLong("total_hits"))));
+    }
+}
@@ -9,18 +9,45 @@ import ru.practicum.explorewithme.model.StatUnit;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface StatsServerRepository extends JpaRepository<StatUnit, Long> {
-    @Query("SELECT s.app AS singleApp, s.uri AS singleUri, " +
-            "CASE WHEN :unique = false THEN COUNT(s.uri) " +
-            "ELSE COUNT(DISTINCT CONCAT(s.uri, s.ip)) " +
-            "END AS totalHits " +
-            "FROM StatUnit AS s " +
-            "WHERE s.timestamp BETWEEN :start AND :end " +
-            "AND (COALESCE (:uris) IS NULL OR s.uri IN :uris) " +
-            "GROUP BY singleUri, singleApp " +
-            "ORDER BY totalHits DESC")
-    List<HitCount> countHitsForListedUrisInTimeRangeConsideringIpUniqueness(@Param("start") LocalDateTime start,
-                                                                            @Param("end") LocalDateTime end,
-                                                                            @Param("uris") List<String> uris,
-                                                                            @Param("unique") boolean unique);
+public interface StatsServerRepository extends JpaRepository<StatUnit, Long>, StatsServerBatchRepository {
+    @Query(value = "SELECT application_name AS \"singleApp\", uri AS \"singleUri\", " +
+            "COUNT(*) AS \"totalHits\" " +
+            "FROM requests_stat " +
+            "WHERE created_at BETWEEN :start AND :end " +
+            "GROUP BY uri, application_name " +
+            "ORDER BY \"totalHits\" DESC", nativeQuery = true)
+    List<HitCount> countHitsInTimeRange(@Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end);
+
+    @Query(value = "SELECT application_name AS \"singleApp\", uri AS \"singleUri\", " +
+            "COUNT(DISTINCT ip) AS \"totalHits\" " +
+            "FROM requests_stat " +
+            "WHERE created_at BETWEEN :start AND :end " +
+            "GROUP BY uri, application_name " +
+            "ORDER BY \"totalHits\" DESC", nativeQuery = true)
+    List<HitCount> countUniqueHitsInTimeRange(@Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end);
+
+    @Query(value = "SELECT application_name AS \"singleApp\", uri AS \"singleUri\", " +
+            "COUNT(*) AS \"totalHits\" " +
+            "FROM requests_stat " +
+            "WHERE uri IN (:uris) AND created_at BETWEEN :start AND :end " +
+            "GROUP BY uri, application_name " +
+            "ORDER BY \"totalHits\" DESC", nativeQuery = true)
+    List<HitCount> countHitsForListedUrisInTimeRange(@Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end,
+                                                     @Param("uris") List<String> uris);
+
+    @Query(value = "SELECT application_name AS \"singleApp\", uri AS \"singleUri\", " +
+            "COUNT(DISTINCT ip) AS \"totalHits\" " +
+            "FROM requests_stat " +
+            "WHERE uri IN (:uris) AND created_at BETWEEN :start AND :end " +
+            "GROUP BY uri, application_name " +
+            "ORDER BY \"totalHits\" DESC", nativeQuery = true)
+    List<HitCount> countUniqueHitsForListedUrisInTimeRange(@Param("start") LocalDateTime start,
+                                                           @Param("end") LocalDateTime end,
+                                                           @Param("uris") List<String> uris);
+
+    @Query("SELECT COALESCE(MAX(s.id), 0) FROM StatUnit AS s")
+    long findLatestId();
 }
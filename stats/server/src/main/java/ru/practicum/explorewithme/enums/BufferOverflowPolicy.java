@@ -0,0 +1,7 @@
+package ru.practicum.explorewithme.enums;
+
+public enum BufferOverflowPolicy {
+    BLOCK,
+    DROP_OLDEST,
+    REJECT
+}
@@ -0,0 +1,35 @@
+package ru.practicum.explorewithme.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    MINUTE("hits_per_minute", ChronoUnit.MINUTES),
+    HOUR("hits_per_hour", ChronoUnit.HOURS),
+    DAY("hits_per_day", ChronoUnit.DAYS);
+
+    private final String tableName;
+    private final ChronoUnit unit;
+
+    RollupGranularity(String tableName, ChronoUnit unit) {
+        this.tableName = tableName;
+        this.unit = unit;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public LocalDateTime floor(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime dateTime) {
+        LocalDateTime floor = floor(dateTime);
+        return floor.equals(dateTime) ? floor : floor.plus(1, unit);
+    }
+
+    public RollupGranularity coarser() {
+        return this == DAY ? null : values()[ordinal() + 1];
+    }
+}
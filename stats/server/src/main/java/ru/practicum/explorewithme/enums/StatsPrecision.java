@@ -0,0 +1,17 @@
+package ru.practicum.explorewithme.enums;
+
+import ru.practicum.explorewithme.exception.IncorrectRequestException;
+
+import java.util.Arrays;
+
+public enum StatsPrecision {
+    EXACT,
+    APPROX;
+
+    public static StatsPrecision findByType(String precision) {
+        return Arrays.stream(values())
+                .filter(type -> type.name().equalsIgnoreCase(precision))
+                .findFirst()
+                .orElseThrow(() -> new IncorrectRequestException("Unknown stats precision: " + precision));
+    }
+}
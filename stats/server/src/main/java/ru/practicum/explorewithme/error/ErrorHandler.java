@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.explorewithme.error.model.ErrorResponse;
 import ru.practicum.explorewithme.exception.IncorrectRequestException;
+import ru.practicum.explorewithme.exception.ServiceOverloadedException;
 
 import javax.validation.ConstraintViolationException;
 
@@ -32,6 +33,13 @@ public class ErrorHandler {
         return new ErrorResponse(exception.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceOverloadedException(final ServiceOverloadedException exception) {
+        log.warn(exception.getMessage());
+        return new ErrorResponse(exception.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable exception) {
@@ -0,0 +1,12 @@
+package ru.practicum.explorewithme.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AggregatedHitCount implements HitCount {
+    private String singleApp;
+    private String singleUri;
+    private Long totalHits;
+}
@@ -0,0 +1,166 @@
+package ru.practicum.explorewithme.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final byte DENSE_ENCODING = 0;
+    private static final byte SPARSE_ENCODING = 1;
+    private static final int SPARSE_ENTRY_BYTES = 3;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between " + MIN_PRECISION +
+                    " and " + MAX_PRECISION + ", but was " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+
+        if (buffer.get() == SPARSE_ENCODING) {
+            while (buffer.remaining() >= SPARSE_ENTRY_BYTES) {
+                int index = buffer.getShort() & 0xFFFF;
+                sketch.registers[index] = buffer.get();
+            }
+        } else {
+            buffer.get(sketch.registers);
+        }
+        return sketch;
+    }
+
+    public static double relativeStandardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        long hash = hash64(value.getBytes(StandardCharsets.UTF_8));
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision) + 1, Long.SIZE - precision + 1);
+
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        HyperLogLog merged = foldTo(Math.min(precision, other.precision));
+        HyperLogLog folded = other.foldTo(merged.precision);
+
+        for (int index = 0; index < merged.registers.length; index++) {
+            if (folded.registers[index] > merged.registers[index]) {
+                merged.registers[index] = folded.registers[index];
+            }
+        }
+        return merged;
+    }
+
+    public long estimate() {
+        int registerCount = registers.length;
+        double harmonicSum = 0;
+        int emptyRegisters = 0;
+
+        for (byte register : registers) {
+            harmonicSum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+
+        double estimate = alpha(registerCount) * registerCount * registerCount / harmonicSum;
+        if (estimate <= 2.5 * registerCount && emptyRegisters > 0) {
+            estimate = registerCount * Math.log((double) registerCount / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int filledRegisters = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                filledRegisters++;
+            }
+        }
+
+        if (filledRegisters * SPARSE_ENTRY_BYTES < registers.length) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + filledRegisters * SPARSE_ENTRY_BYTES)
+                    .put((byte) precision)
+                    .put(SPARSE_ENCODING);
+            for (int index = 0; index < registers.length; index++) {
+                if (registers[index] != 0) {
+                    buffer.putShort((short) index).put(registers[index]);
+                }
+            }
+            return buffer.array();
+        }
+
+        return ByteBuffer.allocate(2 + registers.length)
+                .put((byte) precision)
+                .put(DENSE_ENCODING)
+                .put(registers)
+                .array();
+    }
+
+    private HyperLogLog foldTo(int targetPrecision) {
+        HyperLogLog folded = new HyperLogLog(targetPrecision);
+        int droppedBits = precision - targetPrecision;
+        int maxRank = Long.SIZE - targetPrecision + 1;
+
+        for (int index = 0; index < registers.length; index++) {
+            if (registers[index] == 0) {
+                continue;
+            }
+            int foldedIndex = index >>> droppedBits;
+            int movedBits = index & ((1 << droppedBits) - 1);
+            int rank = movedBits != 0
+                    ? droppedBits - (Integer.SIZE - Integer.numberOfLeadingZeros(movedBits)) + 1
+                    : Math.min(droppedBits + registers[index], maxRank);
+
+            if (rank > folded.registers[foldedIndex]) {
+                folded.registers[foldedIndex] = (byte) rank;
+            }
+        }
+        return folded;
+    }
+
+    private static double alpha(int registerCount) {
+        switch (registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / registerCount);
+        }
+    }
+
+    private static long hash64(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte singleByte : bytes) {
+            hash ^= singleByte & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.explorewithme.model;
+
+import lombok.Getter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class UriHitCounter {
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final long MICROS_PER_MINUTE = 60 * MICROS_PER_SECOND;
+
+    @Getter
+    private final String app;
+    @Getter
+    private final String uri;
+    private final LongAdder totalHits = new LongAdder();
+    private final Map<String, Long> lastSeenByIp = new ConcurrentHashMap<>();
+    private final int maxTrackedIps;
+    private final long[] minuteOfSlot;
+    private final long[] hitsOfSlot;
+    private volatile boolean ipsOverflowed;
+    private long firstHitMicros = Long.MAX_VALUE;
+    private long lastHitMicros = Long.MIN_VALUE;
+
+    public UriHitCounter(String app, String uri, int windowMinutes, int maxTrackedIps) {
+        this.app = app;
+        this.uri = uri;
+        this.maxTrackedIps = maxTrackedIps;
+        this.minuteOfSlot = new long[windowMinutes];
+        this.hitsOfSlot = new long[windowMinutes];
+        Arrays.fill(minuteOfSlot, Long.MIN_VALUE);
+    }
+
+    public synchronized UriHitCounter copy() {
+
+        UriHitCounter counter = new UriHitCounter(app, uri, minuteOfSlot.length, maxTrackedIps);
+        counter.totalHits.add(totalHits.sum());
+        counter.lastSeenByIp.putAll(lastSeenByIp);
+        counter.ipsOverflowed = ipsOverflowed;
+        counter.firstHitMicros = firstHitMicros;
+        counter.lastHitMicros = lastHitMicros;
+        System.arraycopy(minuteOfSlot, 0, counter.minuteOfSlot, 0, minuteOfSlot.length);
+        System.arraycopy(hitsOfSlot, 0, counter.hitsOfSlot, 0, hitsOfSlot.length);
+        return counter;
+    }
+
+    public static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + dateTime.getNano() / 1000;
+    }
+
+    public void add(String ip, LocalDateTime timestamp) {
+
+        long hitMicros = toEpochMicros(timestamp);
+        totalHits.increment();
+
+        if (!ipsOverflowed) {
+            lastSeenByIp.merge(ip, hitMicros, Math::max);
+            if (lastSeenByIp.size() > maxTrackedIps) {
+                ipsOverflowed = true;
+                lastSeenByIp.clear();
+            }
+        }
+
+        synchronized (this) {
+            firstHitMicros = Math.min(firstHitMicros, hitMicros);
+            lastHitMicros = Math.max(lastHitMicros, hitMicros);
+            addToWindow(Math.floorDiv(hitMicros, MICROS_PER_MINUTE), 1);
+        }
+    }
+
+    public Long countHits(LocalDateTime start, LocalDateTime end, boolean unique) {
+
+        long startMicros = toEpochMicros(start);
+        long endMicros = toEpochMicros(end);
+
+        synchronized (this) {
+            if (endMicros < lastHitMicros) {
+                return null;
+            }
+            if (unique) {
+                if (ipsOverflowed) {
+                    return null;
+                }
+                return lastSeenByIp.values().stream()
+                        .filter(lastSeenMicros -> lastSeenMicros >= startMicros)
+                        .count();
+            }
+            if (startMicros <= firstHitMicros) {
+                return totalHits.sum();
+            }
+            return countHitsInWindowSince(startMicros);
+        }
+    }
+
+    public synchronized void writeTo(DataOutputStream output) throws IOException {
+
+        output.writeUTF(app);
+        output.writeUTF(uri);
+        output.writeLong(totalHits.sum());
+        output.writeLong(firstHitMicros);
+        output.writeLong(lastHitMicros);
+
+        for (int slot = 0; slot < minuteOfSlot.length; slot++) {
+            output.writeLong(minuteOfSlot[slot]);
+            output.writeLong(hitsOfSlot[slot]);
+        }
+
+        output.writeBoolean(ipsOverflowed);
+        output.writeInt(lastSeenByIp.size());
+        for (Map.Entry<String, Long> lastSeenOfIp : lastSeenByIp.entrySet()) {
+            output.writeUTF(lastSeenOfIp.getKey());
+            output.writeLong(lastSeenOfIp.getValue());
+        }
+    }
+
+    public static UriHitCounter readFrom(DataInputStream input, int windowMinutes,
+                                         int maxTrackedIps) throws IOException {
+
+        UriHitCounter counter = new UriHitCounter(input.readUTF(), input.readUTF(), windowMinutes, maxTrackedIps);
+        counter.totalHits.add(input.readLong());
+        counter.firstHitMicros = input.readLong();
+        counter.lastHitMicros = input.readLong();
+
+        for (int slot = 0; slot < windowMinutes; slot++) {
+            counter.addToWindow(input.readLong(), input.readLong());
+        }
+
+        counter.ipsOverflowed = input.readBoolean();
+        int trackedIps = input.readInt();
+        for (int i = 0; i < trackedIps; i++) {
+            counter.lastSeenByIp.put(input.readUTF(), input.readLong());
+        }
+        return counter;
+    }
+
+    private void addToWindow(long minute, long hits) {
+
+        if (minute == Long.MIN_VALUE || minute <= Math.floorDiv(lastHitMicros, MICROS_PER_MINUTE) - minuteOfSlot.length) {
+            return;
+        }
+
+        int slot = (int) Math.floorMod(minute, (long) minuteOfSlot.length);
+        if (minuteOfSlot[slot] < minute) {
+            minuteOfSlot[slot] = minute;
+            hitsOfSlot[slot] = 0;
+        }
+        if (minuteOfSlot[slot] == minute) {
+            hitsOfSlot[slot] += hits;
+        }
+    }
+
+    private Long countHitsInWindowSince(long startMicros) {
+
+        long oldestMinuteInWindow = Math.floorDiv(lastHitMicros, MICROS_PER_MINUTE) - minuteOfSlot.length + 1;
+        if (startMicros % MICROS_PER_MINUTE != 0 || startMicros / MICROS_PER_MINUTE < oldestMinuteInWindow) {
+            return null;
+        }
+
+        long startMinute = startMicros / MICROS_PER_MINUTE;
+        long hits = 0;
+        for (int slot = 0; slot < minuteOfSlot.length; slot++) {
+            if (minuteOfSlot[slot] >= startMinute) {
+                hits += hitsOfSlot[slot];
+            }
+        }
+        return hits;
+    }
+}
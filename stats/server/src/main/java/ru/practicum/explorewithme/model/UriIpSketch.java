@@ -0,0 +1,12 @@
+package ru.practicum.explorewithme.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UriIpSketch {
+    private String app;
+    private String uri;
+    private HyperLogLog ipSketch;
+}
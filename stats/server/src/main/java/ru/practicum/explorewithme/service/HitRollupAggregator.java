@@ -0,0 +1,91 @@
+package ru.practicum.explorewithme.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.explorewithme.dao.HitRollupRepository;
+import ru.practicum.explorewithme.model.StatUnit;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "stats-server.rollups.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class HitRollupAggregator {
+    private final HitRollupRepository hitRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean ipSketchesEnabled;
+    private final int ipSketchPrecision;
+    private final int chunkSize;
+    private final long barrierLockTimeoutMs;
+
+    @Autowired
+    public HitRollupAggregator(HitRollupRepository hitRollupRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${stats-server.hll.enabled:true}") boolean ipSketchesEnabled,
+                               @Value("${stats-server.hll.precision:12}") int ipSketchPrecision,
+                               @Value("${stats-server.rollups.aggregation-chunk-size:5000}") int chunkSize,
+                               @Value("${stats-server.rollups.barrier-lock-timeout-ms:100}")
+                               long barrierLockTimeoutMs) {
+        this.hitRollupRepository = hitRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ipSketchesEnabled = ipSketchesEnabled;
+        this.ipSketchPrecision = ipSketchPrecision;
+        this.chunkSize = chunkSize;
+        this.barrierLockTimeoutMs = barrierLockTimeoutMs;
+    }
+
+    @Scheduled(initialDelayString = "${stats-server.rollups.aggregation-interval-ms:1000}",
+            fixedDelayString = "${stats-server.rollups.aggregation-interval-ms:1000}")
+    public void aggregate() {
+
+        Long latestCommittedId;
+        try {
+            latestCommittedId = transactionTemplate.execute(status ->
+                    hitRollupRepository.findLatestCommittedHitId(barrierLockTimeoutMs));
+        } catch (DataAccessException e) {
+            log.debug("hit rollups: requests_stat writers did not finish within {} ms, aggregation postponed: {}",
+                    barrierLockTimeoutMs, e.toString());
+            return;
+        }
+
+        try {
+            Integer aggregatedHits;
+            do {
+                aggregatedHits = transactionTemplate.execute(status -> aggregateChunk(latestCommittedId));
+            } while (aggregatedHits != null && aggregatedHits == chunkSize);
+        } catch (DataAccessException e) {
+            log.warn("hit rollups: failed to aggregate hits up to id {}: {}", latestCommittedId, e.toString());
+        }
+    }
+
+    private int aggregateChunk(long latestCommittedId) {
+
+        long aggregatedUpToId = hitRollupRepository.lockAggregatedUpToId();
+        if (aggregatedUpToId >= latestCommittedId) {
+            return 0;
+        }
+
+        List<StatUnit> statUnits = hitRollupRepository.findHitsInIdRange(aggregatedUpToId, latestCommittedId,
+                chunkSize);
+        if (statUnits.isEmpty()) {
+            hitRollupRepository.updateAggregatedUpToId(latestCommittedId);
+            return 0;
+        }
+
+        hitRollupRepository.addHits(statUnits);
+        if (ipSketchesEnabled) {
+            hitRollupRepository.addIpSketches(statUnits, ipSketchPrecision);
+        }
+        hitRollupRepository.updateAggregatedUpToId(statUnits.size() < chunkSize
+                ? latestCommittedId
+                : statUnits.get(statUnits.size() - 1).getId());
+        return statUnits.size();
+    }
+}
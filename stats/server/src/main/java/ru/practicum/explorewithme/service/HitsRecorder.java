@@ -0,0 +1,40 @@
+package ru.practicum.explorewithme.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.explorewithme.dao.StatsServerRepository;
+import ru.practicum.explorewithme.model.StatUnit;
+
+import java.util.List;
+
+@Component
+@Transactional
+public class HitsRecorder {
+    private final StatsServerRepository statsServerRepository;
+    private final HotHitCounters hotHitCounters;
+
+    @Autowired
+    public HitsRecorder(StatsServerRepository statsServerRepository,
+                        ObjectProvider<HotHitCounters> hotHitCounters) {
+        this.statsServerRepository = statsServerRepository;
+        this.hotHitCounters = hotHitCounters.getIfAvailable();
+    }
+
+    public StatUnit record(StatUnit statUnit) {
+        addToHotCounters(List.of(statUnit));
+        return statsServerRepository.save(statUnit);
+    }
+
+    public int record(List<StatUnit> statUnits) {
+        addToHotCounters(statUnits);
+        return statsServerRepository.insertAllInBatches(statUnits);
+    }
+
+    private void addToHotCounters(List<StatUnit> statUnits) {
+        if (hotHitCounters != null) {
+            hotHitCounters.recordAfterCommit(statUnits);
+        }
+    }
+}
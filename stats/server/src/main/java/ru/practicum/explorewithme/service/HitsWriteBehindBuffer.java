@@ -0,0 +1,219 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.explorewithme.enums.BufferOverflowPolicy;
+import ru.practicum.explorewithme.exception.ServiceOverloadedException;
+import ru.practicum.explorewithme.model.StatUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@ConditionalOnProperty(name = "stats-server.ingestion.mode", havingValue = "async")
+@Slf4j
+public class HitsWriteBehindBuffer {
+    private final HitsRecorder hitsRecorder;
+    private final BlockingQueue<StatUnit> bufferedHits;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final long blockTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final int maxFlushAttempts;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final BufferOverflowPolicy overflowPolicy;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Thread flusher;
+    private final Timer flushLatency;
+    private final Counter flushedHits;
+    private final Counter droppedHits;
+    private final Counter failedFlushes;
+    private volatile boolean running;
+
+    @Autowired
+    public HitsWriteBehindBuffer(HitsRecorder hitsRecorder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${stats-server.ingestion.buffer.capacity:100000}") int capacity,
+                                 @Value("${stats-server.ingestion.buffer.flush-size:2000}") int flushSize,
+                                 @Value("${stats-server.ingestion.buffer.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${stats-server.ingestion.buffer.overflow-policy:BLOCK}")
+                                 BufferOverflowPolicy overflowPolicy,
+                                 @Value("${stats-server.ingestion.buffer.block-timeout-ms:500}") long blockTimeoutMs,
+                                 @Value("${stats-server.ingestion.buffer.shutdown-timeout-ms:30000}")
+                                 long shutdownTimeoutMs,
+                                 @Value("${stats-server.ingestion.buffer.max-flush-attempts:5}") int maxFlushAttempts,
+                                 @Value("${stats-server.ingestion.buffer.retry-backoff-ms:200}") long retryBackoffMs,
+                                 @Value("${stats-server.ingestion.buffer.max-retry-backoff-ms:10000}")
+                                 long maxRetryBackoffMs) {
+        this.hitsRecorder = hitsRecorder;
+        this.bufferedHits = new ArrayBlockingQueue<>(capacity);
+        this.flushSize = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.maxFlushAttempts = maxFlushAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        this.flusher = new Thread(this::flushContinuously, "stats-hits-flusher");
+
+        meterRegistry.gauge("stats.ingestion.buffer.depth", bufferedHits, BlockingQueue::size);
+        this.flushLatency = meterRegistry.timer("stats.ingestion.flush.latency");
+        this.flushedHits = meterRegistry.counter("stats.ingestion.flushed.hits");
+        this.droppedHits = meterRegistry.counter("stats.ingestion.dropped.hits");
+        this.failedFlushes = meterRegistry.counter("stats.ingestion.failed.flushes");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        requestFlush();
+        flusher.join(shutdownTimeoutMs);
+
+        if (flusher.isAlive()) {
+            log.warn("stats hits flusher did not stop within {} ms, {} buffered hits are left unsaved",
+                    shutdownTimeoutMs, bufferedHits.size());
+        } else {
+            flushAll();
+        }
+    }
+
+    public void offer(StatUnit statUnit) {
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    if (!bufferedHits.offer(statUnit, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        throw new ServiceOverloadedException("register endpoint hit: " +
+                                "Hits buffer is full, try again later");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServiceOverloadedException("register endpoint hit: " +
+                            "Interrupted while waiting for free space in hits buffer");
+                }
+                break;
+            case DROP_OLDEST:
+                while (!bufferedHits.offer(statUnit)) {
+                    if (bufferedHits.poll() != null) {
+                        droppedHits.increment();
+                    }
+                }
+                break;
+            default:
+                if (!bufferedHits.offer(statUnit)) {
+                    throw new ServiceOverloadedException("register endpoint hit: " +
+                            "Hits buffer is full, try again later");
+                }
+        }
+
+        if (bufferedHits.size() >= flushSize) {
+            requestFlush();
+        }
+    }
+
+    public int offerAll(List<StatUnit> statUnits) {
+
+        int accepted = 0;
+        for (StatUnit statUnit : statUnits) {
+            try {
+                offer(statUnit);
+                accepted++;
+            } catch (ServiceOverloadedException e) {
+                break;
+            }
+        }
+        return accepted;
+    }
+
+    private void requestFlush() {
+        flushLock.lock();
+        try {
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushContinuously() {
+        while (running) {
+            flushLock.lock();
+            try {
+                if (running && bufferedHits.size() < flushSize) {
+                    flushRequested.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                flushLock.unlock();
+            }
+            flushAll();
+        }
+    }
+
+    private void flushAll() {
+        List<StatUnit> batch = new ArrayList<>(flushSize);
+        while (bufferedHits.drainTo(batch, flushSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<StatUnit> batch) {
+
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushLatency.record(() -> {
+                    hitsRecorder.record(batch);
+                });
+                flushedHits.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+
+                boolean dropAllowed = overflowPolicy == BufferOverflowPolicy.DROP_OLDEST || !running;
+                if (attempt >= maxFlushAttempts && dropAllowed) {
+                    droppedHits.increment(batch.size());
+                    log.error("stats hits flusher: dropped {} hits after {} failed attempts: {}",
+                            batch.size(), attempt, e.toString());
+                    return;
+                }
+                log.warn("stats hits flusher: attempt {} to save {} hits failed, retrying in {} ms: {}",
+                        attempt, batch.size(), backoffMs, e.toString());
+            }
+
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedHits.increment(batch.size());
+                log.error("stats hits flusher: interrupted while retrying, dropped {} hits", batch.size());
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, maxRetryBackoffMs);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package ru.practicum.explorewithme.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.explorewithme.dao.StatsServerRepository;
+import ru.practicum.explorewithme.model.AggregatedHitCount;
+import ru.practicum.explorewithme.model.StatUnit;
+import ru.practicum.explorewithme.model.UriHitCounter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "stats-server.hot-counters.enabled", havingValue = "true")
+@Slf4j
+public class HotHitCounters {
+    private static final int SNAPSHOT_FORMAT_VERSION = 1;
+
+    private final StatsServerRepository statsServerRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Map<String, Map<String, UriHitCounter>> countersByUri = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock recordingLock = new ReentrantReadWriteLock(true);
+    private final AtomicLong recordedUpToId = new AtomicLong();
+    private final List<String> uriPrefixes;
+    private final int windowMinutes;
+    private final int maxTrackedIps;
+    private final int warmUpFetchSize;
+    private final Path snapshotFile;
+    private final Counter answeredQueries;
+    private final Counter fallbackQueries;
+
+    @Autowired
+    public HotHitCounters(StatsServerRepository statsServerRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${stats-server.hot-counters.uri-prefixes:/events/}") List<String> uriPrefixes,
+                          @Value("${stats-server.hot-counters.window-minutes:60}") int windowMinutes,
+                          @Value("${stats-server.hot-counters.max-ips-per-uri:100000}") int maxTrackedIps,
+                          @Value("${stats-server.hot-counters.warm-up-fetch-size:10000}") int warmUpFetchSize,
+                          @Value("${stats-server.hot-counters.snapshot-file:data/hot-counters.snapshot}")
+                          String snapshotFile) {
+        this.statsServerRepository = statsServerRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.uriPrefixes = uriPrefixes;
+        this.windowMinutes = windowMinutes;
+        this.maxTrackedIps = maxTrackedIps;
+        this.warmUpFetchSize = warmUpFetchSize;
+        this.snapshotFile = Paths.get(snapshotFile);
+
+        meterRegistry.gaugeMapSize("stats.hot-counters.uris", List.of(), countersByUri);
+        this.answeredQueries = meterRegistry.counter("stats.hot-counters.queries", "result", "answered");
+        this.fallbackQueries = meterRegistry.counter("stats.hot-counters.queries", "result", "fallback");
+    }
+
+    @PostConstruct
+    public void warmUp() {
+
+        long snapshotId = loadSnapshot();
+        recordedUpToId.set(snapshotId);
+
+        readOnlyTransactionTemplate.executeWithoutResult(status -> statsServerRepository
+                .scanHitsAfterId(snapshotId, warmUpFetchSize, statUnit -> {
+                    recordedUpToId.set(statUnit.getId());
+                    if (isTracked(statUnit.getUri())) {
+                        add(statUnit);
+                    }
+                }));
+
+        log.info("hot hit counters: warmed up {} uris from snapshot up to id {} and table rows up to id {}",
+                countersByUri.size(), snapshotId, recordedUpToId.get());
+    }
+
+    @Scheduled(initialDelayString = "${stats-server.hot-counters.snapshot-interval-ms:60000}",
+            fixedDelayString = "${stats-server.hot-counters.snapshot-interval-ms:60000}")
+    @PreDestroy
+    public void saveSnapshot() {
+
+        long latestId;
+        List<UriHitCounter> counters;
+
+        recordingLock.writeLock().lock();
+        try {
+            latestId = recordedUpToId.get();
+            counters = countersByUri.values().stream()
+                    .flatMap(countersOfUri -> countersOfUri.values().stream())
+                    .map(UriHitCounter::copy)
+                    .collect(Collectors.toList());
+        } finally {
+            recordingLock.writeLock().unlock();
+        }
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(snapshot)) {
+            output.writeInt(SNAPSHOT_FORMAT_VERSION);
+            output.writeInt(windowMinutes);
+            output.writeLong(latestId);
+            output.writeInt(counters.size());
+            for (UriHitCounter counter : counters) {
+                counter.writeTo(output);
+            }
+        } catch (IOException e) {
+            log.warn("hot hit counters: failed to take snapshot: {}", e.toString());
+            return;
+        }
+
+        try {
+            Path absoluteSnapshotFile = snapshotFile.toAbsolutePath();
+            Files.createDirectories(absoluteSnapshotFile.getParent());
+            Path temporaryFile = Files.createTempFile(absoluteSnapshotFile.getParent(), "hot-counters", ".tmp");
+            Files.write(temporaryFile, snapshot.toByteArray());
+            Files.move(temporaryFile, absoluteSnapshotFile,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("hot hit counters: saved snapshot up to id {} to {}", latestId, absoluteSnapshotFile);
+        } catch (IOException e) {
+            log.warn("hot hit counters: failed to write snapshot to {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    public void recordAfterCommit(List<StatUnit> statUnits) {
+
+        List<StatUnit> trackedStatUnits = statUnits.stream()
+                .filter(statUnit -> isTracked(statUnit.getUri()))
+                .collect(Collectors.toList());
+
+        if (trackedStatUnits.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            trackedStatUnits.forEach(this::add);
+            return;
+        }
+
+        Lock recordingReadLock = recordingLock.readLock();
+        recordingReadLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trackedStatUnits.forEach(HotHitCounters.this::add);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                recordingReadLock.unlock();
+            }
+        });
+    }
+
+    public Optional<List<AggregatedHitCount>> countHits(LocalDateTime start, LocalDateTime end,
+                                                        List<String> uris, boolean unique) {
+
+        if (start == null || end == null || uris == null || uris.isEmpty() || !uris.stream().allMatch(this::isTracked)) {
+            fallbackQueries.increment();
+            return Optional.empty();
+        }
+
+        List<AggregatedHitCount> countedHits = new ArrayList<>();
+        for (String uri : new HashSet<>(uris)) {
+            for (UriHitCounter counter : countersByUri.getOrDefault(uri, Map.of()).values()) {
+                Long hits = counter.countHits(start, end, unique);
+                if (hits == null) {
+                    fallbackQueries.increment();
+                    return Optional.empty();
+                }
+                if (hits > 0) {
+                    countedHits.add(new AggregatedHitCount(counter.getApp(), counter.getUri(), hits));
+                }
+            }
+        }
+
+        countedHits.sort(Comparator.comparing(AggregatedHitCount::getTotalHits).reversed());
+        answeredQueries.increment();
+        return Optional.of(countedHits);
+    }
+
+    private boolean isTracked(String uri) {
+        return uri != null && uriPrefixes.stream().anyMatch(uri::startsWith);
+    }
+
+    private void add(StatUnit statUnit) {
+        if (statUnit.getId() != null) {
+            recordedUpToId.accumulateAndGet(statUnit.getId(), Math::max);
+        }
+        countersByUri.computeIfAbsent(statUnit.getUri(), uri -> new ConcurrentHashMap<>())
+                .computeIfAbsent(statUnit.getApp(),
+                        app -> new UriHitCounter(app, statUnit.getUri(), windowMinutes, maxTrackedIps))
+                .add(statUnit.getIp(), statUnit.getTimestamp());
+    }
+
+    private long loadSnapshot() {
+
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (input.readInt() != SNAPSHOT_FORMAT_VERSION || input.readInt() != windowMinutes) {
+                log.warn("hot hit counters: snapshot {} has incompatible format, ignoring it", snapshotFile);
+                return 0;
+            }
+
+            long snapshotId = input.readLong();
+            if (snapshotId > statsServerRepository.findLatestId()) {
+                log.warn("hot hit counters: snapshot {} is ahead of requests_stat table, ignoring it", snapshotFile);
+                return 0;
+            }
+
+            int counters = input.readInt();
+            for (int i = 0; i < counters; i++) {
+                UriHitCounter counter = UriHitCounter.readFrom(input, windowMinutes, maxTrackedIps);
+                if (isTracked(counter.getUri())) {
+                    countersByUri.computeIfAbsent(counter.getUri(), uri -> new ConcurrentHashMap<>())
+                            .put(counter.getApp(), counter);
+                }
+            }
+            return snapshotId;
+        } catch (IOException e) {
+            log.warn("hot hit counters: failed to read snapshot {}: {}", snapshotFile, e.toString());
+            countersByUri.clear();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.explorewithme.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.explorewithme.dao.HitRollupRepository;
+import ru.practicum.explorewithme.dao.RequestsStatPartitionRepository;
+import ru.practicum.explorewithme.enums.RollupGranularity;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "stats-server.partitions.enabled", havingValue = "true")
+@Slf4j
+public class RequestsStatPartitionManager {
+    private final RequestsStatPartitionRepository partitionRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeDays;
+    private final int retentionDays;
+    private final int minuteRollupRetentionDays;
+
+    @Autowired
+    public RequestsStatPartitionManager(RequestsStatPartitionRepository partitionRepository,
+                                        HitRollupRepository hitRollupRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${stats-server.partitions.premake-days:7}") int premakeDays,
+                                        @Value("${stats-server.partitions.retention-days:0}") int retentionDays,
+                                        @Value("${stats-server.partitions.minute-rollup-retention-days:0}")
+                                        int minuteRollupRetentionDays) {
+        this.partitionRepository = partitionRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.premakeDays = premakeDays;
+        this.retentionDays = retentionDays;
+        this.minuteRollupRetentionDays = minuteRollupRetentionDays;
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "${stats-server.partitions.maintenance-cron:0 5 0 * * *}")
+    public void maintainPartitions() {
+
+        if (!partitionRepository.isParentTablePartitioned()) {
+            log.error("requests_stat partitions: table {} is not partitioned, drop it to let schema.sql " +
+                    "recreate it with partitions", RequestsStatPartitionRepository.PARENT_TABLE_NAME);
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        createMissingPartitions(today);
+
+        if (retentionDays > 0) {
+            retireExpiredPartitions(today.minusDays(retentionDays));
+        }
+        if (minuteRollupRetentionDays > 0) {
+            int deletedBuckets = hitRollupRepository.deleteBucketsBefore(RollupGranularity.MINUTE,
+                    today.minusDays(minuteRollupRetentionDays).atStartOfDay());
+            log.info("requests_stat partitions: deleted {} minute rollup buckets older than {} days",
+                    deletedBuckets, minuteRollupRetentionDays);
+        }
+    }
+
+    private void createMissingPartitions(LocalDate today) {
+
+        Set<LocalDate> existingDays = new HashSet<>(partitionRepository.findDailyPartitionDays());
+
+        for (LocalDate day = today; !day.isAfter(today.plusDays(premakeDays)); day = day.plusDays(1)) {
+            if (existingDays.contains(day)) {
+                continue;
+            }
+
+            LocalDate partitionDay = day;
+            try {
+                Integer movedRows = transactionTemplate.execute(status ->
+                        partitionRepository.createDailyPartition(partitionDay));
+                log.info("requests_stat partitions: created partition {}, moved {} rows from default partition",
+                        RequestsStatPartitionRepository.dailyPartitionName(partitionDay), movedRows);
+            } catch (RuntimeException e) {
+                log.warn("requests_stat partitions: failed to create partition {}: {}",
+                        RequestsStatPartitionRepository.dailyPartitionName(partitionDay), e.toString());
+            }
+        }
+    }
+
+    private void retireExpiredPartitions(LocalDate firstRetainedDay) {
+
+        List<LocalDate> partitionDays = partitionRepository.findDailyPartitionDays();
+
+        for (LocalDate day : partitionDays) {
+            if (!day.isBefore(firstRetainedDay)) {
+                break;
+            }
+
+            String partitionName = RequestsStatPartitionRepository.dailyPartitionName(day);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        hitRollupRepository.replaceHitsFromRawTable(granularity, partitionName,
+                                day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                    }
+                    partitionRepository.detachAndDropDailyPartition(day);
+                });
+                log.info("requests_stat partitions: rolled up and dropped partition {}", partitionName);
+            } catch (RuntimeException e) {
+                log.warn("requests_stat partitions: failed to retire partition {}: {}", partitionName, e.toString());
+            }
+        }
+
+        for (LocalDate day : partitionRepository.findDefaultPartitionDaysBefore(firstRetainedDay)) {
+            try {
+                Integer deletedRows = transactionTemplate.execute(status -> {
+                    for (RollupGranularity granularity : RollupGranularity.values()) {
+                        hitRollupRepository.replaceHitsFromRawTable(granularity,
+                                RequestsStatPartitionRepository.DEFAULT_PARTITION_NAME,
+                                day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                    }
+                    return partitionRepository.deleteDefaultPartitionRows(day);
+                });
+                log.info("requests_stat partitions: rolled up and deleted {} rows of {} from default partition",
+                        deletedRows, day);
+            } catch (RuntimeException e) {
+                log.warn("requests_stat partitions: failed to retire rows of {} from default partition: {}",
+                        day, e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.explorewithme.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.practicum.explorewithme.PartitionInfoDto;
+import ru.practicum.explorewithme.dao.RequestsStatPartitionRepository;
+
+import java.util.List;
+
+@Service
+public class StatsAdminService {
+    private final RequestsStatPartitionRepository partitionRepository;
+
+    @Autowired
+    public StatsAdminService(RequestsStatPartitionRepository partitionRepository) {
+        this.partitionRepository = partitionRepository;
+    }
+
+    public List<PartitionInfoDto> getPartitions() {
+        return partitionRepository.findPartitions();
+    }
+}
@@ -1,50 +1,390 @@
 package ru.practicum.explorewithme.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.explorewithme.StatsBatchResponseDto;
 import ru.practicum.explorewithme.StatsRequestDto;
 import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.dao.HitRollupRepository;
 import ru.practicum.explorewithme.dao.StatsServerRepository;
+import ru.practicum.explorewithme.enums.RollupGranularity;
+import ru.practicum.explorewithme.enums.StatsPrecision;
 import ru.practicum.explorewithme.exception.IncorrectRequestException;
 import ru.practicum.explorewithme.mapper.StatsServerMapper;
+import ru.practicum.explorewithme.model.AggregatedHitCount;
 import ru.practicum.explorewithme.model.HitCount;
+import ru.practicum.explorewithme.model.HyperLogLog;
+import ru.practicum.explorewithme.model.StatUnit;
+import ru.practicum.explorewithme.model.UriIpSketch;
 
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
-@Transactional
+@Slf4j
 public class StatsServerService {
     private final StatsServerRepository statsServerRepository;
+    private final HitRollupRepository hitRollupRepository;
     private final StatsServerMapper mapper;
+    private final HitsRecorder hitsRecorder;
+    private final HitsWriteBehindBuffer writeBehindBuffer;
+    private final HotHitCounters hotHitCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int ndjsonChunkSize;
+    private final boolean rollupsEnabled;
+    private final boolean ipSketchesEnabled;
+    private final int ipSketchPrecision;
 
     @Autowired
-    public StatsServerService(StatsServerRepository statsServerRepository, StatsServerMapper mapper) {
+    public StatsServerService(StatsServerRepository statsServerRepository,
+                              HitRollupRepository hitRollupRepository,
+                              StatsServerMapper mapper,
+                              HitsRecorder hitsRecorder,
+                              ObjectProvider<HitsWriteBehindBuffer> writeBehindBuffer,
+                              ObjectProvider<HotHitCounters> hotHitCounters,
+                              TransactionTemplate transactionTemplate,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              @Value("${stats-server.batch.ndjson-chunk-size:5000}") int ndjsonChunkSize,
+                              @Value("${stats-server.rollups.enabled:true}") boolean rollupsEnabled,
+                              @Value("${stats-server.hll.enabled:true}") boolean ipSketchesEnabled,
+                              @Value("${stats-server.hll.precision:12}") int ipSketchPrecision) {
         this.statsServerRepository = statsServerRepository;
+        this.hitRollupRepository = hitRollupRepository;
         this.mapper = mapper;
+        this.hitsRecorder = hitsRecorder;
+        this.writeBehindBuffer = writeBehindBuffer.getIfAvailable();
+        this.hotHitCounters = hotHitCounters.getIfAvailable();
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.ndjsonChunkSize = ndjsonChunkSize;
+        this.rollupsEnabled = rollupsEnabled;
+        this.ipSketchesEnabled = rollupsEnabled && ipSketchesEnabled;
+        this.ipSketchPrecision = ipSketchPrecision;
     }
 
     public StatsResponseDto registerEndpointHit(StatsRequestDto statsRequestDto) {
-        return mapper.statUnitToDto(statsServerRepository.save(mapper.dtoToStatUnit(statsRequestDto)));
+
+        StatUnit statUnit = mapper.dtoToStatUnit(statsRequestDto);
+
+        if (writeBehindBuffer != null) {
+            writeBehindBuffer.offer(statUnit);
+            return mapper.statUnitToDto(statUnit);
+        }
+        return mapper.statUnitToDto(hitsRecorder.record(statUnit));
+    }
+
+    public StatsBatchResponseDto registerEndpointHits(List<StatsRequestDto> statsRequestDtos) {
+
+        List<StatUnit> validStatUnits = statsRequestDtos.stream()
+                .filter(this::isValidHit)
+                .map(mapper::dtoToStatUnit)
+                .collect(Collectors.toList());
+
+        long accepted = storeHits(validStatUnits);
+
+        return StatsBatchResponseDto.builder()
+                .received((long) statsRequestDtos.size())
+                .accepted(accepted)
+                .rejected(statsRequestDtos.size() - accepted)
+                .build();
+    }
+
+    public StatsBatchResponseDto registerEndpointHitsFromNdjson(InputStream ndjsonHits) {
+
+        if (writeBehindBuffer == null) {
+            return transactionTemplate.execute(status -> readAndStoreNdjsonHits(ndjsonHits));
+        }
+        return readAndStoreNdjsonHits(ndjsonHits);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public Collection<StatsResponseDto> getStats(LocalDateTime start, LocalDateTime end,
-                                                 List<String> uris, boolean unique) {
+                                                 List<String> uris, boolean unique, StatsPrecision precision) {
+
+        checkTimeRange(start, end);
+
+        Optional<List<AggregatedHitCount>> hotCountedHits = hotHitCounters != null
+                ? hotHitCounters.countHits(start, end, uris, unique)
+                : Optional.empty();
+
+        List<? extends HitCount> countedHits;
+        if (hotCountedHits.isPresent()) {
+            countedHits = hotCountedHits.get();
+        } else if (relativeStandardErrorOf(unique, precision) > 0) {
+            countedHits = countUniqueHitsApproximately(start, end, uris);
+        } else if (rollupsEnabled && !unique && start != null && end != null) {
+            countedHits = countHitsUsingRollups(start, end, uris);
+        } else {
+            countedHits = countHitsInRawTable(start, end, uris, unique);
+        }
+
+        return countedHits.stream()
+                .map(mapper::hitCountToDto)
+                .collect(Collectors.toList());
+    }
 
+    public void checkTimeRange(LocalDateTime start, LocalDateTime end) {
         if (start != null && end != null && start.isAfter(end)) {
             throw new IncorrectRequestException("get stats from statistics service: " +
                     "Start time cannot be after end time");
         }
+    }
+
+    public void checkStreamingRequest(LocalDateTime start, LocalDateTime end, Integer limit) {
+        checkTimeRange(start, end);
+        if (limit != null && limit <= 0) {
+            throw new IncorrectRequestException("stream stats from statistics service: " +
+                    "Limit must be positive");
+        }
+    }
 
-        List<HitCount> countedHits =
-                statsServerRepository.countHitsForListedUrisInTimeRangeConsideringIpUniqueness(start, end, uris, unique);
+    public void writeStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                           String afterUri, String afterApp, Integer limit,
+                           boolean ndjson, OutputStream outputStream) throws IOException {
 
-        return countedHits.stream()
-                .map(mapper::hitCountToDto)
+        checkStreamingRequest(start, end, limit);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+
+            readOnlyTransactionTemplate.executeWithoutResult(status -> statsServerRepository
+                    .scanHitCountsOrderedByUri(start, end, uris, unique, afterUri, afterApp, limit, hitCount -> {
+                        try {
+                            generator.writeObject(mapper.hitCountToDto(hitCount));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+
+            if (ndjson) {
+                generator.writeRaw('\n');
+            } else {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public double relativeStandardErrorOf(boolean unique, StatsPrecision precision) {
+        if (unique && precision == StatsPrecision.APPROX && ipSketchesEnabled) {
+            return HyperLogLog.relativeStandardError(ipSketchPrecision);
+        }
+        return 0;
+    }
+
+    private List<HitCount> countHitsInRawTable(LocalDateTime start, LocalDateTime end,
+                                               List<String> uris, boolean unique) {
+
+        if (uris == null || uris.isEmpty()) {
+            return unique
+                    ? statsServerRepository.countUniqueHitsInTimeRange(start, end)
+                    : statsServerRepository.countHitsInTimeRange(start, end);
+        }
+        return unique
+                ? statsServerRepository.countUniqueHitsForListedUrisInTimeRange(start, end, uris)
+                : statsServerRepository.countHitsForListedUrisInTimeRange(start, end, uris);
+    }
+
+    private List<? extends HitCount> countUniqueHitsApproximately(LocalDateTime start, LocalDateTime end,
+                                                                  List<String> uris) {
+
+        LocalDateTime firstFullHour = RollupGranularity.HOUR.ceil(start);
+        LocalDateTime lastPartialHour = RollupGranularity.HOUR.floor(end);
+
+        if (!firstFullHour.isBefore(lastPartialHour)) {
+            return countHitsInRawTable(start, end, uris, true);
+        }
+
+        Map<List<String>, HyperLogLog> ipSketchesByAppAndUri = new HashMap<>();
+        Consumer<StatUnit> addIp = statUnit -> ipSketchesByAppAndUri
+                .computeIfAbsent(List.of(statUnit.getApp(), statUnit.getUri()),
+                        appAndUri -> new HyperLogLog(ipSketchPrecision))
+                .add(statUnit.getIp());
+        Consumer<UriIpSketch> mergeSketch = uriIpSketch -> ipSketchesByAppAndUri
+                .merge(List.of(uriIpSketch.getApp(), uriIpSketch.getUri()), uriIpSketch.getIpSketch(),
+                        HyperLogLog::merge);
+
+        if (start.isBefore(firstFullHour)) {
+            hitRollupRepository.collectDistinctIps(start, firstFullHour, false, uris, addIp);
+        }
+        hitRollupRepository.collectDistinctIps(lastPartialHour, end, true, uris, addIp);
+        hitRollupRepository.collectDistinctIps(firstFullHour, lastPartialHour, false, uris,
+                hitRollupRepository.findAggregatedUpToId(), addIp);
+
+        LocalDateTime firstFullDay = RollupGranularity.DAY.ceil(firstFullHour);
+        LocalDateTime lastPartialDay = RollupGranularity.DAY.floor(lastPartialHour);
+
+        if (firstFullDay.isBefore(lastPartialDay)) {
+            collectIpSketches(RollupGranularity.HOUR, firstFullHour, firstFullDay, uris, mergeSketch);
+            collectIpSketches(RollupGranularity.HOUR, lastPartialDay, lastPartialHour, uris, mergeSketch);
+            collectIpSketches(RollupGranularity.DAY, firstFullDay, lastPartialDay, uris, mergeSketch);
+        } else {
+            collectIpSketches(RollupGranularity.HOUR, firstFullHour, lastPartialHour, uris, mergeSketch);
+        }
+
+        return ipSketchesByAppAndUri.entrySet().stream()
+                .map(sketchOfUri -> new AggregatedHitCount(
+                        sketchOfUri.getKey().get(0), sketchOfUri.getKey().get(1), sketchOfUri.getValue().estimate()))
+                .sorted(Comparator.comparing(AggregatedHitCount::getTotalHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private void collectIpSketches(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                   List<String> uris, Consumer<UriIpSketch> consumer) {
+        if (from.isBefore(to)) {
+            hitRollupRepository.collectIpSketches(granularity, from, to, uris, consumer);
+        }
+    }
+
+    private List<AggregatedHitCount> countHitsUsingRollups(LocalDateTime start, LocalDateTime end,
+                                                           List<String> uris) {
+
+        List<AggregatedHitCount> partialCounts = new ArrayList<>();
+        LocalDateTime firstFullMinute = RollupGranularity.MINUTE.ceil(start);
+        LocalDateTime lastPartialMinute = RollupGranularity.MINUTE.floor(end);
+
+        if (firstFullMinute.isBefore(lastPartialMinute)) {
+            if (start.isBefore(firstFullMinute)) {
+                partialCounts.addAll(hitRollupRepository.countRawHits(start, firstFullMinute, false, uris));
+            }
+            partialCounts.addAll(hitRollupRepository.countRawHits(lastPartialMinute, end, true, uris));
+            partialCounts.addAll(hitRollupRepository.countRawHits(firstFullMinute, lastPartialMinute, false, uris,
+                    hitRollupRepository.findAggregatedUpToId()));
+            collectBucketCounts(RollupGranularity.MINUTE, firstFullMinute, lastPartialMinute, uris, partialCounts);
+        } else {
+            partialCounts.addAll(hitRollupRepository.countRawHits(start, end, true, uris));
+        }
+
+        Map<List<String>, Long> hitsByAppAndUri = new HashMap<>();
+        for (AggregatedHitCount partialCount : partialCounts) {
+            hitsByAppAndUri.merge(List.of(partialCount.getSingleApp(), partialCount.getSingleUri()),
+                    partialCount.getTotalHits(), Long::sum);
+        }
+
+        return hitsByAppAndUri.entrySet().stream()
+                .map(hitsOfUri -> new AggregatedHitCount(
+                        hitsOfUri.getKey().get(0), hitsOfUri.getKey().get(1), hitsOfUri.getValue()))
+                .sorted(Comparator.comparing(AggregatedHitCount::getTotalHits).reversed())
                 .collect(Collectors.toList());
     }
+
+    private void collectBucketCounts(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                     List<String> uris, List<AggregatedHitCount> partialCounts) {
+
+        RollupGranularity coarser = granularity.coarser();
+        if (coarser != null) {
+            LocalDateTime coarseFrom = coarser.ceil(from);
+            LocalDateTime coarseTo = coarser.floor(to);
+
+            if (coarseFrom.isBefore(coarseTo)) {
+                addBucketCounts(granularity, from, coarseFrom, uris, partialCounts);
+                addBucketCounts(granularity, coarseTo, to, uris, partialCounts);
+                collectBucketCounts(coarser, coarseFrom, coarseTo, uris, partialCounts);
+                return;
+            }
+        }
+        addBucketCounts(granularity, from, to, uris, partialCounts);
+    }
+
+    private void addBucketCounts(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                 List<String> uris, List<AggregatedHitCount> partialCounts) {
+        if (from.isBefore(to)) {
+            partialCounts.addAll(hitRollupRepository.countHitsInBuckets(granularity, from, to, uris));
+        }
+    }
+
+    private StatsBatchResponseDto readAndStoreNdjsonHits(InputStream ndjsonHits) {
+
+        long received = 0;
+        long accepted = 0;
+        List<StatUnit> chunkOfStatUnits = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjsonHits, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                received++;
+
+                StatsRequestDto statsRequestDto = parseNdjsonLine(line);
+                if (statsRequestDto != null && isValidHit(statsRequestDto)) {
+                    chunkOfStatUnits.add(mapper.dtoToStatUnit(statsRequestDto));
+                }
+
+                if (chunkOfStatUnits.size() >= ndjsonChunkSize) {
+                    accepted += storeHits(chunkOfStatUnits);
+                    chunkOfStatUnits.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        accepted += storeHits(chunkOfStatUnits);
+
+        return StatsBatchResponseDto.builder()
+                .received(received)
+                .accepted(accepted)
+                .rejected(received - accepted)
+                .build();
+    }
+
+    private int storeHits(List<StatUnit> statUnits) {
+
+        if (writeBehindBuffer != null) {
+            return writeBehindBuffer.offerAll(statUnits);
+        }
+        return hitsRecorder.record(statUnits);
+    }
+
+    private boolean isValidHit(StatsRequestDto statsRequestDto) {
+        return statsRequestDto != null && validator.validate(statsRequestDto).isEmpty();
+    }
+
+    private StatsRequestDto parseNdjsonLine(String line) {
+        try {
+            return objectMapper.readValue(line, StatsRequestDto.class);
+        } catch (JsonProcessingException e) {
+            log.warn("register endpoint hits: skipped malformed NDJSON line: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
 }
@@ -1,9 +1,70 @@
-DROP TABLE IF EXISTS requests_stat;
+DO $$
+BEGIN
+  IF to_regclass('requests_stat') IS NOT NULL
+      AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('requests_stat')) THEN
+    DROP TABLE requests_stat;
+  END IF;
+END $$^;
+
+CREATE SEQUENCE IF NOT EXISTS requests_stat_id_seq^;
 
 CREATE TABLE IF NOT EXISTS requests_stat (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+  id BIGINT NOT NULL DEFAULT nextval('requests_stat_id_seq'),
   application_name VARCHAR(50) NOT NULL,
   uri VARCHAR(100) NOT NULL,
   ip VARCHAR(40) NOT NULL,
-  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT PK_REQUESTS_STAT PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at)^;
+
+ALTER SEQUENCE requests_stat_id_seq OWNED BY requests_stat.id^;
+
+CREATE TABLE IF NOT EXISTS requests_stat_default PARTITION OF requests_stat DEFAULT^;
+
+CREATE INDEX IF NOT EXISTS requests_stat_uri_created_at_idx
+  ON requests_stat (uri, created_at) INCLUDE (application_name, ip)^;
+
+CREATE INDEX IF NOT EXISTS requests_stat_created_at_idx
+  ON requests_stat (created_at) INCLUDE (uri, application_name, ip)^;
+
+CREATE TABLE IF NOT EXISTS hits_per_minute (
+  application_name VARCHAR(50) NOT NULL,
+  uri VARCHAR(100) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT PK_HITS_PER_MINUTE PRIMARY KEY (uri, bucket_start, application_name)
+)^;
+
+CREATE INDEX IF NOT EXISTS hits_per_minute_bucket_start_idx ON hits_per_minute (bucket_start)^;
+
+CREATE TABLE IF NOT EXISTS hits_per_hour (
+  application_name VARCHAR(50) NOT NULL,
+  uri VARCHAR(100) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  hits BIGINT NOT NULL,
+  ip_sketch BYTEA,
+  CONSTRAINT PK_HITS_PER_HOUR PRIMARY KEY (uri, bucket_start, application_name)
+)^;
+
+CREATE INDEX IF NOT EXISTS hits_per_hour_bucket_start_idx ON hits_per_hour (bucket_start)^;
+
+CREATE TABLE IF NOT EXISTS hits_per_day (
+  application_name VARCHAR(50) NOT NULL,
+  uri VARCHAR(100) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  hits BIGINT NOT NULL,
+  ip_sketch BYTEA,
+  CONSTRAINT PK_HITS_PER_DAY PRIMARY KEY (uri, bucket_start, application_name)
+)^;
+
+CREATE INDEX IF NOT EXISTS hits_per_day_bucket_start_idx ON hits_per_day (bucket_start)^;
+
+CREATE TABLE IF NOT EXISTS hit_rollup_watermarks (
+  name VARCHAR(50) NOT NULL,
+  aggregated_up_to_id BIGINT NOT NULL,
+  CONSTRAINT PK_HIT_ROLLUP_WATERMARKS PRIMARY KEY (name)
+)^;
+
+INSERT INTO hit_rollup_watermarks (name, aggregated_up_to_id)
+SELECT 'rollups', COALESCE(MAX(id), 0) FROM requests_stat
+ON CONFLICT (name) DO NOTHING^;
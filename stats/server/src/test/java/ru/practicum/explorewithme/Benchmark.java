@@ -0,0 +1,34 @@
+package ru.practicum.explorewithme;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public final class Benchmark {
+    public static final int RUNS = 5;
+
+    private Benchmark() {
+    }
+
+    public static <T> Measurement<T> measure(Supplier<T> action) {
+
+        T result = action.get();
+        double[] elapsedMs = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long startedAt = System.nanoTime();
+            action.get();
+            elapsedMs[run] = Math.round((System.nanoTime() - startedAt) / 1_000.0) / 1_000.0;
+        }
+        Arrays.sort(elapsedMs);
+        return new Measurement<>(result, elapsedMs[RUNS / 2]);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Measurement<T> {
+        private final T result;
+        private final double medianMs;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.explorewithme;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+    private static final String DATASOURCE_URL = System.getenv("STATS_TEST_DATASOURCE_URL");
+    private static PostgreSQLContainer<?> postgres;
+
+    @BeforeAll
+    static void assumeDatabaseAvailable() {
+        assumeTrue(DATASOURCE_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "neither STATS_TEST_DATASOURCE_URL nor Docker is available");
+    }
+
+    @DynamicPropertySource
+    static void registerDatasource(DynamicPropertyRegistry registry) {
+
+        if (DATASOURCE_URL != null) {
+            registry.add("spring.datasource.url", () -> DATASOURCE_URL);
+            registry.add("spring.datasource.username",
+                    () -> System.getenv().getOrDefault("STATS_TEST_DATASOURCE_USER", "postgres"));
+            registry.add("spring.datasource.password",
+                    () -> System.getenv().getOrDefault("STATS_TEST_DATASOURCE_PASSWORD", ""));
+            return;
+        }
+
+        synchronized (PostgresIntegrationTest.class) {
+            if (postgres == null) {
+                postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+                postgres.start();
+            }
+        }
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.explorewithme.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.Benchmark.Measurement;
+import ru.practicum.explorewithme.StatsRequestDto;
+import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.format.StatsSmileFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+class WireFormatBenchmarkTest {
+    private static final int HITS = Integer.getInteger("benchmark.hits", 1000);
+    private static final int STATS = Integer.getInteger("benchmark.stats", 1000);
+    private static final int OPERATIONS_PER_RUN = 200;
+    private static final int WARM_UP_OPERATIONS = 5_000;
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smileMapper = StatsSmileFormat.createObjectMapper();
+
+    @Test
+    void encodesHitBatchesAndStatsInFewerBytesAndDecodesThemFaster() {
+
+        List<StatsRequestDto> hits = IntStream.range(0, HITS)
+                .mapToObj(i -> StatsRequestDto.builder()
+                        .app("ewm-main-service")
+                        .uri("/events/" + (i % 100))
+                        .ip("192.168." + (i / 256 % 256) + "." + (i % 256))
+                        .timestamp(LocalDateTime.of(2026, 10, 18, 12, 0, 0).plusSeconds(i))
+                        .build())
+                .collect(Collectors.toList());
+        List<StatsResponseDto> stats = IntStream.range(0, STATS)
+                .mapToObj(i -> new StatsResponseDto("ewm-main-service", "/events/" + i, (long) i * 31 % 1000))
+                .collect(Collectors.toList());
+
+        compare("hit batch of " + HITS, hits, new TypeReference<List<StatsRequestDto>>() {});
+        compare("stats of " + STATS + " uris", stats, new TypeReference<List<StatsResponseDto>>() {});
+    }
+
+    private <T> void compare(String payload, T value, TypeReference<T> type) {
+
+        byte[] json = encode(jsonMapper, value);
+        byte[] smile = encode(smileMapper, value);
+        assertEquals(value, decode(jsonMapper, json, type), payload);
+        assertEquals(value, decode(smileMapper, smile, type), payload);
+
+        for (int operation = 0; operation < WARM_UP_OPERATIONS; operation++) {
+            decode(jsonMapper, encode(jsonMapper, value), type);
+            decode(smileMapper, encode(smileMapper, value), type);
+        }
+        double jsonEncodeMs = perOperation(Benchmark.measure(() -> repeat(() -> encode(jsonMapper, value))));
+        double smileEncodeMs = perOperation(Benchmark.measure(() -> repeat(() -> encode(smileMapper, value))));
+        double jsonDecodeMs = perOperation(Benchmark.measure(() -> repeat(() -> decode(jsonMapper, json, type))));
+        double smileDecodeMs = perOperation(Benchmark.measure(() -> repeat(() -> decode(smileMapper, smile, type))));
+
+        log.info("wire format benchmark, {}: JSON {} bytes, encoded in {} ms, decoded in {} ms; " +
+                        "Smile {} bytes, encoded in {} ms, decoded in {} ms",
+                payload, json.length, jsonEncodeMs, jsonDecodeMs, smile.length, smileEncodeMs, smileDecodeMs);
+        assertTrue(smile.length < json.length / 2, payload);
+        assertTrue(smileDecodeMs < jsonDecodeMs, payload);
+    }
+
+    private static Object repeat(Runnable operation) {
+
+        for (int i = 0; i < OPERATIONS_PER_RUN; i++) {
+            operation.run();
+        }
+        return null;
+    }
+
+    private static double perOperation(Measurement<?> measurement) {
+        return Math.round(measurement.getMedianMs() / OPERATIONS_PER_RUN * 1_000) / 1_000.0;
+    }
+
+    private static byte[] encode(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T decode(ObjectMapper mapper, byte[] body, TypeReference<T> type) {
+        try {
+            return mapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
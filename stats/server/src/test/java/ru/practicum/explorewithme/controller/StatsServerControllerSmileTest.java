@@ -0,0 +1,143 @@
+package ru.practicum.explorewithme.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.explorewithme.StatsBatchResponseDto;
+import ru.practicum.explorewithme.StatsRequestDto;
+import ru.practicum.explorewithme.StatsResponseDto;
+import ru.practicum.explorewithme.config.WireFormatConfig;
+import ru.practicum.explorewithme.enums.StatsPrecision;
+import ru.practicum.explorewithme.format.StatsSmileFormat;
+import ru.practicum.explorewithme.service.StatsAdminService;
+import ru.practicum.explorewithme.service.StatsServerService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest
+@Import(WireFormatConfig.class)
+class StatsServerControllerSmileTest {
+    private final ObjectMapper smileMapper = StatsSmileFormat.createObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper jsonMapper;
+    @MockBean
+    private StatsServerService statsServerService;
+    @MockBean
+    private StatsAdminService statsAdminService;
+
+    @Test
+    void readsSmileHitAndAnswersInSmile() throws Exception {
+
+        StatsRequestDto hit = hitOf(1);
+        StatsResponseDto registered = new StatsResponseDto(hit.getApp(), hit.getUri(), 1L);
+        when(statsServerService.registerEndpointHit(any())).thenReturn(registered);
+
+        MvcResult result = mockMvc.perform(post("/hit")
+                        .contentType(StatsSmileFormat.MEDIA_TYPE)
+                        .accept(StatsSmileFormat.MEDIA_TYPE)
+                        .content(smileMapper.writeValueAsBytes(hit)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(StatsSmileFormat.MEDIA_TYPE))
+                .andReturn();
+
+        ArgumentCaptor<StatsRequestDto> receivedHit = ArgumentCaptor.forClass(StatsRequestDto.class);
+        verify(statsServerService).registerEndpointHit(receivedHit.capture());
+        assertEquals(hit, receivedHit.getValue());
+        assertEquals(registered, smileMapper.readValue(result.getResponse().getContentAsByteArray(),
+                StatsResponseDto.class));
+    }
+
+    @Test
+    void readsSmileBatchAsSameHitsAsJsonBatch() throws Exception {
+
+        List<StatsRequestDto> hits = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            hits.add(hitOf(i));
+        }
+        StatsBatchResponseDto accepted = new StatsBatchResponseDto(100L, 100L, 0L);
+        when(statsServerService.registerEndpointHits(anyList())).thenReturn(accepted);
+
+        byte[] smileBody = smileMapper.writeValueAsBytes(hits);
+        byte[] jsonBody = jsonMapper.writeValueAsBytes(hits);
+        MvcResult smileResult = mockMvc.perform(post("/hit/batch")
+                        .contentType(StatsSmileFormat.MEDIA_TYPE)
+                        .accept(StatsSmileFormat.MEDIA_TYPE)
+                        .content(smileBody))
+                .andExpect(status().isCreated())
+                .andReturn();
+        mockMvc.perform(post("/hit/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StatsRequestDto>> receivedHits = ArgumentCaptor.forClass(List.class);
+        verify(statsServerService, times(2)).registerEndpointHits(receivedHits.capture());
+        assertEquals(hits, receivedHits.getAllValues().get(0));
+        assertEquals(hits, receivedHits.getAllValues().get(1));
+        assertEquals(accepted, smileMapper.readValue(smileResult.getResponse().getContentAsByteArray(),
+                StatsBatchResponseDto.class));
+        assertTrue(smileBody.length < jsonBody.length / 2,
+                "Smile batch takes " + smileBody.length + " bytes, JSON batch " + jsonBody.length);
+    }
+
+    @Test
+    void answersStatsInSmileWhenAccepted() throws Exception {
+
+        List<StatsResponseDto> stats = List.of(
+                new StatsResponseDto("ewm-main-service", "/events/1", 42L),
+                new StatsResponseDto("ewm-main-service", "/events/2", 7L),
+                new StatsResponseDto("ewm-main-service", "/events", 0L));
+        when(statsServerService.relativeStandardErrorOf(anyBoolean(), any())).thenReturn(0.0);
+        when(statsServerService.getStats(any(), any(), any(), anyBoolean(), eq(StatsPrecision.EXACT)))
+                .thenReturn(stats);
+
+        MvcResult result = mockMvc.perform(get("/stats")
+                        .param("start", "2026-01-01 00:00:00")
+                        .param("end", "2026-12-31 23:59:59")
+                        .accept(StatsSmileFormat.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(StatsSmileFormat.MEDIA_TYPE))
+                .andReturn();
+
+        assertEquals(stats, smileMapper.readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<List<StatsResponseDto>>() {}));
+    }
+
+    private static StatsRequestDto hitOf(int i) {
+        return StatsRequestDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/" + (i % 10))
+                .ip("192.168." + (i / 256) + "." + (i % 256))
+                .timestamp(LocalDateTime.of(2026, 10, 18, 12, 0, 0).plusSeconds(i))
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.explorewithme.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+class StatsServerBatchRepositoryTest extends PostgresIntegrationTest {
+    private static final LocalDateTime START = LocalDateTime.of(2001, 1, 1, 0, 0);
+    private static final LocalDateTime END = START.plusDays(1);
+
+    @Autowired
+    private StatsServerRepository statsServerRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createHits() {
+        jdbcTemplate.update("INSERT INTO requests_stat (application_name, uri, ip, created_at) " +
+                "VALUES ('app-a', '/events/1', '10.0.0.1', ?), ('app-b', '/events/1', '10.0.0.1', ?), " +
+                "('app-a', '/events/2', '10.0.0.1', ?)", START, START, START);
+    }
+
+    @Test
+    void resumesAfterUriAndApp() {
+        assertEquals(List.of("/events/1 app-b", "/events/2 app-a"), scanAfter("/events/1", "app-a"));
+    }
+
+    @Test
+    void keepsAllAppsOfUriWhenResumingAfterUriOnly() {
+        assertEquals(List.of("/events/1 app-a", "/events/1 app-b", "/events/2 app-a"), scanAfter("/events/1", null));
+    }
+
+    private List<String> scanAfter(String afterUri, String afterApp) {
+
+        List<String> hitCounts = new ArrayList<>();
+        statsServerRepository.scanHitCountsOrderedByUri(START, END, null, false, afterUri, afterApp, null,
+                hitCount -> hitCounts.add(hitCount.getSingleUri() + " " + hitCount.getSingleApp()));
+        return hitCounts;
+    }
+}
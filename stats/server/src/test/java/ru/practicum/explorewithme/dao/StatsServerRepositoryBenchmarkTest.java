@@ -0,0 +1,125 @@
+package ru.practicum.explorewithme.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.explorewithme.Benchmark;
+import ru.practicum.explorewithme.Benchmark.Measurement;
+import ru.practicum.explorewithme.PostgresIntegrationTest;
+import ru.practicum.explorewithme.model.HitCount;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+class StatsServerRepositoryBenchmarkTest extends PostgresIntegrationTest {
+    private static final long HITS = Long.getLong("benchmark.hits", 200_000);
+    private static final int URIS = 1000;
+    private static final int DAYS = 7;
+
+    @Autowired
+    private StatsServerRepository statsServerRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalDateTime firstDay;
+    private List<String> listedUris;
+
+    @BeforeEach
+    void createHits() {
+
+        firstDay = LocalDate.now().atStartOfDay();
+        listedUris = IntStream.range(0, 10)
+                .mapToObj(i -> "/events/" + i * (URIS / 10))
+                .collect(Collectors.toList());
+
+        if (countHits(firstDay, firstDay.plusDays(DAYS)) == HITS && countHits(null, null) == HITS) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        jdbcTemplate.execute("TRUNCATE requests_stat");
+        jdbcTemplate.update("INSERT INTO requests_stat (application_name, uri, ip, created_at) " +
+                        "SELECT 'ewm-main-service', '/events/' || FLOOR(POWER(random(), 3) * ?), " +
+                        "'10.' || FLOOR(random() * 64) || '.' || FLOOR(random() * 256) || '.' || FLOOR(random() * 256), " +
+                        "? + random() * ? * INTERVAL '1 day' " +
+                        "FROM generate_series(1, ?)",
+                URIS, firstDay, DAYS, HITS);
+        jdbcTemplate.execute("VACUUM ANALYZE requests_stat");
+        log.info("requests_stat benchmark: loaded {} hits over {} days in {} ms",
+                HITS, DAYS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @Test
+    void countsHitsOfEachQueryShapeWithAndWithoutCoveringIndexes() {
+
+        Map<String, Supplier<List<HitCount>>> queries = new LinkedHashMap<>();
+        Map<String, LocalDateTime[]> ranges = new LinkedHashMap<>();
+        ranges.put("1h", new LocalDateTime[]{firstDay.plusHours(12), firstDay.plusHours(13)});
+        ranges.put("1d", new LocalDateTime[]{firstDay, firstDay.plusDays(1)});
+        ranges.put(DAYS + "d", new LocalDateTime[]{firstDay, firstDay.plusDays(DAYS)});
+        ranges.forEach((range, bounds) -> {
+            LocalDateTime start = bounds[0];
+            LocalDateTime end = bounds[1];
+            queries.put(range + " all uris", () -> statsServerRepository.countHitsInTimeRange(start, end));
+            queries.put(range + " all uris unique",
+                    () -> statsServerRepository.countUniqueHitsInTimeRange(start, end));
+            queries.put(range + " 10 uris",
+                    () -> statsServerRepository.countHitsForListedUrisInTimeRange(start, end, listedUris));
+            queries.put(range + " 10 uris unique",
+                    () -> statsServerRepository.countUniqueHitsForListedUrisInTimeRange(start, end, listedUris));
+        });
+
+        Map<String, Measurement<List<String>>> indexed = new LinkedHashMap<>();
+        queries.forEach((name, query) -> indexed.put(name, Benchmark.measure(() -> toRows(query.get()))));
+
+        Map<String, Measurement<List<String>>> withoutIndexes = new LinkedHashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("DROP INDEX requests_stat_uri_created_at_idx, requests_stat_created_at_idx");
+            queries.forEach((name, query) -> withoutIndexes.put(name, Benchmark.measure(() -> toRows(query.get()))));
+            status.setRollbackOnly();
+        });
+
+        queries.keySet().forEach(name -> {
+            log.info("requests_stat benchmark, {} hits, {}: {} ms with covering indexes, {} ms without",
+                    HITS, name, indexed.get(name).getMedianMs(), withoutIndexes.get(name).getMedianMs());
+            assertEquals(withoutIndexes.get(name).getResult(), indexed.get(name).getResult(), name);
+            assertTrue(indexed.get(name).getResult().size() > 0, name);
+        });
+    }
+
+    private static List<String> toRows(List<HitCount> hitCounts) {
+        return hitCounts.stream()
+                .map(hitCount -> hitCount.getSingleApp() + " " + hitCount.getSingleUri() + " " +
+                        hitCount.getTotalHits())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private long countHits(LocalDateTime start, LocalDateTime end) {
+        if (start == null) {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests_stat", Long.class);
+        }
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests_stat WHERE created_at >= ? AND created_at < ?",
+                Long.class, start, end);
+    }
+}
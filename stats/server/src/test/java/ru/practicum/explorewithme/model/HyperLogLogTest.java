@@ -0,0 +1,156 @@
+package ru.practicum.explorewithme.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+    private static final byte DENSE_ENCODING = 0;
+    private static final byte SPARSE_ENCODING = 1;
+
+    @Test
+    void estimatesWithinThreeStandardErrorsAcrossCardinalities() {
+
+        for (int precision : new int[]{HyperLogLog.MIN_PRECISION, 10, 12, HyperLogLog.MAX_PRECISION}) {
+            double allowedError = 3 * HyperLogLog.relativeStandardError(precision);
+            for (int cardinality : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+                HyperLogLog sketch = sketchOf(precision, 0, cardinality);
+
+                double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+                assertTrue(error <= allowedError, "precision " + precision + ", cardinality " + cardinality +
+                        ": relative error " + error + " exceeds " + allowedError);
+            }
+        }
+    }
+
+    @Test
+    void countsSmallCardinalitiesAlmostExactly() {
+
+        for (int cardinality = 1; cardinality <= 100; cardinality++) {
+            long estimate = sketchOf(12, 0, cardinality).estimate();
+            assertTrue(Math.abs(estimate - cardinality) <= Math.max(1, cardinality / 50),
+                    "cardinality " + cardinality + " estimated as " + estimate);
+        }
+        assertEquals(0, new HyperLogLog(12).estimate());
+    }
+
+    @Test
+    void ignoresRepeatedValues() {
+
+        HyperLogLog sketch = sketchOf(12, 0, 5_000);
+        byte[] bytes = sketch.toBytes();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(ipOf(i));
+        }
+
+        assertArrayEquals(bytes, sketch.toBytes());
+    }
+
+    @Test
+    void switchesFromSparseToDenseEncodingAsRegistersFill() {
+
+        int precision = 12;
+        int registerCount = 1 << precision;
+        HyperLogLog sketch = new HyperLogLog(precision);
+        byte previousEncoding = SPARSE_ENCODING;
+        int denseSince = -1;
+
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(ipOf(i));
+            byte[] bytes = sketch.toBytes();
+            byte encoding = bytes[1];
+
+            assertEquals(precision, bytes[0]);
+            if (encoding == SPARSE_ENCODING) {
+                assertEquals(0, (bytes.length - 2) % 3);
+                assertTrue((bytes.length - 2) / 3 * 3 < registerCount);
+            } else {
+                assertEquals(DENSE_ENCODING, encoding);
+                assertEquals(2 + registerCount, bytes.length);
+                if (previousEncoding == SPARSE_ENCODING) {
+                    assertEquals(-1, denseSince, "encoding switched back to sparse");
+                    denseSince = i;
+                }
+            }
+            previousEncoding = encoding;
+
+            HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+            assertEquals(precision, restored.getPrecision());
+            assertEquals(sketch.estimate(), restored.estimate());
+            assertArrayEquals(bytes, restored.toBytes());
+        }
+
+        assertTrue(denseSince > 0, "sketch never switched to dense encoding");
+        assertEquals(DENSE_ENCODING, previousEncoding);
+    }
+
+    @Test
+    void restoresEmptySketch() {
+
+        HyperLogLog restored = HyperLogLog.fromBytes(new HyperLogLog(14).toBytes());
+
+        assertEquals(14, restored.getPrecision());
+        assertEquals(0, restored.estimate());
+    }
+
+    @Test
+    void mergesSketchesOfSamePrecisionIntoUnion() {
+
+        HyperLogLog first = sketchOf(12, 0, 60_000);
+        HyperLogLog second = sketchOf(12, 40_000, 100_000);
+
+        HyperLogLog merged = first.merge(second);
+
+        assertArrayEquals(sketchOf(12, 0, 100_000).toBytes(), merged.toBytes());
+        assertArrayEquals(merged.toBytes(), second.merge(first).toBytes());
+        assertArrayEquals(sketchOf(12, 0, 60_000).toBytes(), first.toBytes());
+    }
+
+    @Test
+    void foldsToLowerPrecisionWhenMergingAcrossPrecisions() {
+
+        for (int higherPrecision = 5; higherPrecision <= HyperLogLog.MAX_PRECISION; higherPrecision++) {
+            for (int lowerPrecision = HyperLogLog.MIN_PRECISION; lowerPrecision < higherPrecision; lowerPrecision++) {
+                HyperLogLog precise = sketchOf(higherPrecision, 0, 30_000);
+                HyperLogLog coarse = sketchOf(lowerPrecision, 20_000, 50_000);
+
+                HyperLogLog merged = precise.merge(coarse);
+
+                assertEquals(lowerPrecision, merged.getPrecision());
+                assertArrayEquals(sketchOf(lowerPrecision, 0, 50_000).toBytes(), merged.toBytes(),
+                        "merge of precisions " + higherPrecision + " and " + lowerPrecision);
+                assertArrayEquals(merged.toBytes(), coarse.merge(precise).toBytes());
+            }
+        }
+    }
+
+    @Test
+    void keepsErrorBoundOfLowerPrecisionAfterCrossPrecisionMerge() {
+
+        HyperLogLog merged = sketchOf(16, 0, 700_000).merge(sketchOf(10, 500_000, 1_000_000));
+
+        double error = Math.abs(merged.estimate() - 1_000_000) / 1_000_000.0;
+        assertTrue(error <= 3 * HyperLogLog.relativeStandardError(10), "relative error " + error);
+    }
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MIN_PRECISION - 1));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+
+    private static HyperLogLog sketchOf(int precision, int fromInclusive, int toExclusive) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            sketch.add(ipOf(i));
+        }
+        return sketch;
+    }
+
+    private static String ipOf(int i) {
+        return (10 + (i >>> 24)) + "." + ((i >>> 16) & 0xFF) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+    }
+}